@@ -0,0 +1,55 @@
+package com.timodenk.poker;
+
+import java.util.Random;
+
+/**
+ * Reproducible input data for the benchmarks.
+ * All samples are dealt from a shuffled {@link Deck} with a fixed seed, so every run measures the same card distribution (that of real deals).
+ * The number of samples is a power of two, so benchmarks can cycle through them with a bit mask.
+ */
+public class BenchmarkData {
+    public static final long SEED = 20170306L;
+
+    public static final int SAMPLES_COUNT = 1024,
+            SAMPLES_MASK = SAMPLES_COUNT - 1;
+
+    /**
+     * @return A deck whose random object has the fixed seed.
+     */
+    public static Deck createDeck() {
+        Deck deck = new Deck();
+        deck.setRandom(new Random(SEED));
+        return deck;
+    }
+
+    /**
+     * Deals random card combinations.
+     * @param cardsCount Number of cards per sample (e.g. 7 for two pocket cards and five community cards).
+     * @return {@code SAMPLES_COUNT} arrays of {@code cardsCount} distinct cards each.
+     */
+    public static Card[][] dealCards(int cardsCount) {
+        Deck deck = createDeck();
+        Card[][] samples = new Card[SAMPLES_COUNT][];
+        try {
+            for (int i = 0; i < SAMPLES_COUNT; i++) {
+                deck.shuffle();
+                samples[i] = deck.takeNCards(cardsCount);
+            }
+        } catch (DeckStateException e) {
+            throw new IllegalStateException(e);
+        }
+        return samples;
+    }
+
+    /**
+     * @return {@code SAMPLES_COUNT} random starting hands. Two samples may share cards.
+     */
+    public static StartingHand[] dealStartingHands() {
+        Random random = new Random(SEED);
+        StartingHand[] samples = new StartingHand[SAMPLES_COUNT];
+        for (int i = 0; i < SAMPLES_COUNT; i++) {
+            samples[i] = StartingHand.get(random.nextInt(StartingHand.ALL_COUNT));
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,56 @@
+package com.timodenk.poker;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link Deck} operations that the assessment executes for every iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeckBenchmark {
+    private static final int CARDS_PER_DEAL = 7; // two pocket cards and five community cards
+
+    private Deck deck;
+
+    // deck with the cards of a heads-up situation on the turn taken
+    private Deck partialDeck;
+
+    @Setup
+    public void setup() throws DeckStateException {
+        deck = BenchmarkData.createDeck();
+        deck.saveSnapshot();
+
+        partialDeck = BenchmarkData.createDeck();
+        partialDeck.takeNCards(8);
+    }
+
+    /**
+     * Deals seven cards and resets the deck to its snapshot. The score is the time per card.
+     */
+    @Benchmark
+    @OperationsPerInvocation(CARDS_PER_DEAL)
+    public void takeNextCard(Blackhole blackhole) throws DeckStateException {
+        deck.reset();
+        for (int i = 0; i < CARDS_PER_DEAL; i++) {
+            blackhole.consume(deck.takeNextCard());
+        }
+    }
+
+    @Benchmark
+    public Deck shuffle() {
+        deck.shuffle();
+        return deck;
+    }
+
+    @Benchmark
+    public Deck cloneDeck() {
+        return partialDeck.clone();
+    }
+}
@@ -0,0 +1,112 @@
+package com.timodenk.poker;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of hand evaluation and comparison.
+ * The inputs are random deals (see {@link BenchmarkData}), one sample per invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluatorBenchmark {
+    private Card[][] sevenCards, fiveCards;
+
+    private long[] sevenCardSets, boards;
+
+    // card sets of all starting hands
+    private long[] startingHandCards;
+
+    private final BoardEvaluator boardEvaluator = new BoardEvaluator();
+
+    private Hand[] hands;
+
+    // CardAssessment.getRank sorts its parameter, the samples are copied into this array to keep their order random
+    private final Card[] fiveCardsCopy = new Card[5];
+
+    private int sample = 0;
+
+    @Setup
+    public void setup() {
+        sevenCards = BenchmarkData.dealCards(7);
+        fiveCards = BenchmarkData.dealCards(5);
+        sevenCardSets = new long[BenchmarkData.SAMPLES_COUNT];
+        boards = new long[BenchmarkData.SAMPLES_COUNT];
+        hands = new Hand[BenchmarkData.SAMPLES_COUNT];
+        for (int i = 0; i < BenchmarkData.SAMPLES_COUNT; i++) {
+            sevenCardSets[i] = CardSet.of(sevenCards[i]);
+            boards[i] = CardSet.of(fiveCards[i]);
+            hands[i] = Poker.getBestHand(sevenCards[i]);
+        }
+        StartingHand[] startingHands = StartingHand.getAll();
+        startingHandCards = new long[startingHands.length];
+        for (int i = 0; i < startingHands.length; i++) {
+            startingHandCards[i] = CardSet.of(startingHands[i]);
+        }
+    }
+
+    private int nextSample() {
+        sample = (sample + 1) & BenchmarkData.SAMPLES_MASK;
+        return sample;
+    }
+
+    @Benchmark
+    public Hand getBestHand() {
+        return Poker.getBestHand(sevenCards[nextSample()]);
+    }
+
+    @Benchmark
+    public int evaluateCardSet() {
+        return HandEvaluator.evaluate(sevenCardSets[nextSample()]);
+    }
+
+    /**
+     * Evaluates all starting hands on one board, reported per starting hand (hands that share a card with the board are skipped).
+     */
+    @Benchmark
+    @OperationsPerInvocation(StartingHand.ALL_COUNT)
+    public int evaluateAllHandsOnBoard() {
+        long board = boards[nextSample()];
+        int sum = 0;
+        for (long cards : startingHandCards) {
+            if (!CardSet.intersects(cards, board)) {
+                sum += HandEvaluator.evaluate(cards | board);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Counterpart of {@code evaluateAllHandsOnBoard} that preprocesses the board once (see {@link BoardEvaluator}).
+     */
+    @Benchmark
+    @OperationsPerInvocation(StartingHand.ALL_COUNT)
+    public int boardEvaluatorAllHandsOnBoard() {
+        boardEvaluator.setBoard(boards[nextSample()]);
+        int sum = 0;
+        for (long cards : startingHandCards) {
+            int value = boardEvaluator.evaluate(cards);
+            if (value != HandValue.NONE) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public HandName cardAssessmentGetRank() {
+        System.arraycopy(fiveCards[nextSample()], 0, fiveCardsCopy, 0, 5);
+        return CardAssessment.getRank(fiveCardsCopy);
+    }
+
+    @Benchmark
+    public int handCompareTo() {
+        int i = nextSample();
+        return hands[i].compareTo(hands[(i + 1) & BenchmarkData.SAMPLES_MASK]);
+    }
+}
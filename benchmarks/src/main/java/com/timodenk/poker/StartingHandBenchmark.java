@@ -0,0 +1,55 @@
+package com.timodenk.poker;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the checks whether starting hands can be played together.
+ * Random pairs of starting hands share a card in about 1 of 170 cases, like random matchups of the heads-up analysis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StartingHandBenchmark {
+    private StartingHand[] startingHands;
+
+    private CommunityCards[] communityCards;
+
+    private final StartingHand[] pair = new StartingHand[2];
+
+    private int sample = 0;
+
+    @Setup
+    public void setup() {
+        startingHands = BenchmarkData.dealStartingHands();
+        Card[][] boards = BenchmarkData.dealCards(CommunityCards.CARDS_COUNT);
+        communityCards = new CommunityCards[BenchmarkData.SAMPLES_COUNT];
+        for (int i = 0; i < BenchmarkData.SAMPLES_COUNT; i++) {
+            Card[] board = boards[i];
+            communityCards[i] = new CommunityCards(new Card[] { board[0], board[1], board[2] }, board[3], board[4]);
+        }
+    }
+
+    private int nextSample() {
+        sample = (sample + 1) & BenchmarkData.SAMPLES_MASK;
+        return sample;
+    }
+
+    @Benchmark
+    public boolean playable() {
+        int i = nextSample();
+        pair[0] = startingHands[i];
+        pair[1] = startingHands[(i + 1) & BenchmarkData.SAMPLES_MASK];
+        return StartingHand.playable(pair);
+    }
+
+    @Benchmark
+    public boolean playableWithCommunityCards() {
+        int i = nextSample();
+        return StartingHand.playable(startingHands[i], communityCards[i]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the Monte Carlo iterations of {@link AssessmentCallable} (single thread).
+ * Every invocation runs {@code ITERATIONS} iterations, the score is the time of one iteration (dealing the unknown cards, evaluating all hands, and logging the showdown).
+ * The fixed costs of a call (shuffling and taking the known cards) are spread over the iterations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AssessmentBenchmark {
+    private static final int ITERATIONS = 1000;
+
+    /**
+     * KNOWN_POCKETS: AKs vs. QQ without community cards,
+     * RANDOM_OPPONENT: AKs vs. unknown pocket cards,
+     * THREE_PLAYERS: AKs vs. QQ vs. unknown pocket cards.
+     */
+    @Param({ "KNOWN_POCKETS", "RANDOM_OPPONENT", "THREE_PLAYERS" })
+    public String situation;
+
+    private AssessmentCallable callable;
+
+    @Setup
+    public void setup() throws DeckStateException {
+        Deck deck = BenchmarkData.createDeck();
+        DeckCard[] aceKing = { deck.getCard(CardSet.indexOf(Rank.ACE, Suit.SPADES)), deck.getCard(CardSet.indexOf(Rank.KING, Suit.SPADES)) },
+                queens = { deck.getCard(CardSet.indexOf(Rank.QUEEN, Suit.HEARTS)), deck.getCard(CardSet.indexOf(Rank.QUEEN, Suit.CLUBS)) },
+                unknown = { null, null };
+
+        DeckCard[][] pocketCards;
+        switch (situation) {
+            case "KNOWN_POCKETS":
+                pocketCards = new DeckCard[][] { aceKing, queens };
+                break;
+            case "RANDOM_OPPONENT":
+                pocketCards = new DeckCard[][] { aceKing, unknown };
+                break;
+            case "THREE_PLAYERS":
+                pocketCards = new DeckCard[][] { aceKing, queens, unknown };
+                break;
+            default:
+                throw new IllegalArgumentException(situation);
+        }
+        callable = new AssessmentCallable(deck, pocketCards, new DeckCard[0], new DeckCard[0], ITERATIONS, SamplingMode.UNIFORM);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public Outcome[] iteration() throws DeckStateException {
+        return callable.call();
+    }
+}
@@ -0,0 +1,225 @@
+package com.timodenk.poker;
+
+import java.util.Arrays;
+
+/**
+ * Evaluator for many pairs of hole cards on the same board (e.g. all 1326 starting hands on one set of community cards).
+ * The board is preprocessed once: its cards are reduced to the rank masks of ranks that occur at least once, twice, three times, and four times,
+ * and to the ranks of the only suit that can still become a flush (a suit with at least three board cards).
+ *
+ * Apart from flushes, the value of a hand only depends on the ranks of the hole cards. These values are cached per rank pair,
+ * so on a given board the hand logic of {@link HandEvaluator} runs at most 91 times and every other pair of hole cards costs a table lookup.
+ * Flushes are added separately: if the hole cards complete the flush suit, the better one of the flush and the cached value is taken
+ * (only four of a kind and full houses beat a flush that is not a straight flush).
+ *
+ * An object can be reused for several boards (see {@code setBoard}). It is not thread-safe.
+ */
+public class BoardEvaluator {
+    private static final int RANKS_COUNT = 13,
+            RANK_MASK = (1 << RANKS_COUNT) - 1,
+            RANK_PAIRS_COUNT = RANKS_COUNT * (RANKS_COUNT + 1) / 2, // unordered pairs of hole card ranks
+            HOLE_CARDS_COUNT = 2,
+            NO_FLUSH_SUIT = -1,
+            MIN_FLUSH_SUIT_COUNT = 5 - HOLE_CARDS_COUNT; // board cards of a suit that are needed for a flush
+
+    // rank ordinal and suit ordinal of every card index
+    private static final int[] RANKS = new int[Deck.CARDS_COUNT],
+            SUITS = new int[Deck.CARDS_COUNT];
+
+    static {
+        for (int card = 0; card < Deck.CARDS_COUNT; card++) {
+            RANKS[card] = card % RANKS_COUNT;
+            SUITS[card] = card / RANKS_COUNT;
+        }
+    }
+
+    private long board = CardSet.EMPTY;
+
+    // rank masks of the board cards: ranks that occur at least once, twice, three times, four times
+    private int one, two, three, four;
+
+    // suit ordinal of the suit that can still become a flush, NO_FLUSH_SUIT if there is none
+    private int flushSuit;
+
+    // ranks of the board cards of the flush suit
+    private int flushRanks;
+
+    // values without flushes per pair of hole card ranks (index rank1 * 13 + rank2), HandValue.NONE if not computed for the current board yet
+    private final int[] rankPairValues = new int[RANKS_COUNT * RANKS_COUNT];
+
+    /**
+     * Creates an evaluator without a board. {@code setBoard} has to be called before hole cards are evaluated.
+     */
+    public BoardEvaluator() {
+    }
+
+    /**
+     * @param board {@link CardSet} of three to five community cards.
+     */
+    public BoardEvaluator(long board) {
+        setBoard(board);
+    }
+
+    /**
+     * Preprocesses a new board.
+     * @param board {@link CardSet} of three to five community cards.
+     */
+    public void setBoard(long board) {
+        int size = CardSet.size(board);
+        if (size < BoardIndex.MIN_CARDS || size > BoardIndex.MAX_CARDS) {
+            throw new IllegalArgumentException("A board consists of 3 to 5 cards, not " + size + ".");
+        }
+        this.board = board;
+
+        one = two = three = four = 0;
+        flushSuit = NO_FLUSH_SUIT;
+        flushRanks = 0;
+        for (Suit suit : Suit.values()) {
+            int ranks = CardSet.getRanks(board, suit);
+            four |= three & ranks; three |= two & ranks; two |= one & ranks; one |= ranks;
+            if (Integer.bitCount(ranks) >= MIN_FLUSH_SUIT_COUNT) {
+                flushSuit = suit.ordinal(); // at most one suit of five cards has three of them
+                flushRanks = ranks;
+            }
+        }
+        Arrays.fill(rankPairValues, HandValue.NONE);
+    }
+
+    /**
+     * @return {@link CardSet} of the current board.
+     */
+    public long getBoard() {
+        return board;
+    }
+
+    /**
+     * Evaluates two hole cards on the current board. The cards are not checked against the board.
+     * @param card1 Card index of the first hole card (see {@link CardSet}).
+     * @param card2 Card index of the second hole card.
+     * @return The {@link HandValue} of the best hand that can be formed with the hole cards and the board.
+     */
+    public int evaluate(int card1, int card2) {
+        int rank1 = RANKS[card1], rank2 = RANKS[card2],
+                value = getRankPairValue(rank1, rank2);
+
+        if (flushSuit != NO_FLUSH_SUIT) {
+            int ranks = flushRanks;
+            if (SUITS[card1] == flushSuit) {
+                ranks |= 1 << rank1;
+            }
+            if (SUITS[card2] == flushSuit) {
+                ranks |= 1 << rank2;
+            }
+            if (Integer.bitCount(ranks) >= 5) {
+                value = Math.max(value, HandEvaluator.evaluateFlush(ranks));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Evaluates two hole cards on the current board.
+     * @param holeCards {@link CardSet} of two cards.
+     * @return The {@link HandValue} of the best hand that can be formed with the hole cards and the board, {@link HandValue#NONE} if a hole card is on the board.
+     */
+    public int evaluate(long holeCards) {
+        if (Long.bitCount(holeCards) != HOLE_CARDS_COUNT) {
+            throw new IllegalArgumentException("Hole cards consist of two cards.");
+        }
+        if (CardSet.intersects(holeCards, board)) {
+            return HandValue.NONE;
+        }
+        return evaluate(Long.numberOfTrailingZeros(holeCards), 63 - Long.numberOfLeadingZeros(holeCards));
+    }
+
+    /**
+     * Evaluates many pairs of hole cards on the current board.
+     * Instead of evaluating pair by pair, the arrays are processed in passes: the validation of all pairs, the values without flushes,
+     * the flushes (skipped if the board has no flush suit), and the pairs that share a card with the board.
+     * If there are at least as many pairs as rank pairs, the values of all rank pairs are computed up front, so the lookup pass does not check the cache.
+     * The flush ranks of a pair are taken from its card set with one shift, so apart from the rare flushes the passes do not branch per pair.
+     * @param holeCards {@link CardSet}s of two cards each.
+     * @param values Array that receives the {@link HandValue} of every pair of hole cards (at the same index), {@link HandValue#NONE} if a hole card is on the board.
+     * @param count Number of pairs to evaluate, starting at index 0.
+     */
+    public void evaluate(long[] holeCards, int[] values, int count) {
+        if (count > holeCards.length || count > values.length) {
+            throw new IllegalArgumentException("Arrays are shorter than the number of hole card pairs.");
+        }
+
+        // pass 1: validation (the exception is thrown after the loop)
+        int invalid = 0;
+        for (int k = 0; k < count; k++) {
+            invalid |= Long.bitCount(holeCards[k]) ^ HOLE_CARDS_COUNT;
+        }
+        if (invalid != 0) {
+            throw new IllegalArgumentException("Hole cards consist of two cards.");
+        }
+
+        // pass 2: values without flushes
+        if (count >= RANK_PAIRS_COUNT) {
+            fillRankPairValues();
+            for (int k = 0; k < count; k++) {
+                long cards = holeCards[k];
+                values[k] = rankPairValues[RANKS[Long.numberOfTrailingZeros(cards)] * RANKS_COUNT + RANKS[63 - Long.numberOfLeadingZeros(cards)]];
+            }
+        }
+        else {
+            for (int k = 0; k < count; k++) {
+                long cards = holeCards[k];
+                values[k] = getRankPairValue(RANKS[Long.numberOfTrailingZeros(cards)], RANKS[63 - Long.numberOfLeadingZeros(cards)]);
+            }
+        }
+
+        // pass 3: flushes
+        if (flushSuit != NO_FLUSH_SUIT) {
+            int shift = flushSuit * RANKS_COUNT;
+            for (int k = 0; k < count; k++) {
+                int ranks = flushRanks | ((int)(holeCards[k] >>> shift) & RANK_MASK);
+                if (Integer.bitCount(ranks) >= 5) {
+                    values[k] = Math.max(values[k], HandEvaluator.evaluateFlush(ranks));
+                }
+            }
+        }
+
+        // pass 4: hole cards on the board
+        for (int k = 0; k < count; k++) {
+            values[k] = CardSet.intersects(holeCards[k], board) ? HandValue.NONE : values[k];
+        }
+    }
+
+    /**
+     * @return The cached {@link HandValue} without flushes of a pair of hole card ranks, computed if the pair has not been evaluated on the current board yet.
+     */
+    private int getRankPairValue(int rank1, int rank2) {
+        int value = rankPairValues[rank1 * RANKS_COUNT + rank2];
+        if (value == HandValue.NONE) {
+            value = evaluateRanks(1 << rank1, 1 << rank2);
+            rankPairValues[rank1 * RANKS_COUNT + rank2] = value;
+            rankPairValues[rank2 * RANKS_COUNT + rank1] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Computes the values of all pairs of hole card ranks that are not cached for the current board yet.
+     */
+    private void fillRankPairValues() {
+        for (int rank1 = 0; rank1 < RANKS_COUNT; rank1++) {
+            for (int rank2 = rank1; rank2 < RANKS_COUNT; rank2++) {
+                getRankPairValue(rank1, rank2);
+            }
+        }
+    }
+
+    /**
+     * Adds the ranks of two hole cards to the rank masks of the board.
+     * @return The {@link HandValue} of the best hand without considering flushes.
+     */
+    private int evaluateRanks(int bit1, int bit2) {
+        int one = this.one, two = this.two, three = this.three, four = this.four;
+        four |= three & bit1; three |= two & bit1; two |= one & bit1; one |= bit1;
+        four |= three & bit2; three |= two & bit2; two |= one & bit2; one |= bit2;
+        return HandEvaluator.evaluate(one, two, three, four, 0);
+    }
+}
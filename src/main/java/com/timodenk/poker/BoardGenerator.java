@@ -0,0 +1,140 @@
+package com.timodenk.poker;
+
+/**
+ * Lazy source of all five-card boards (community cards) without a global array of boards.
+ * The boards are generated as {@link CardSet}s in colexicographic order, which is the ascending order of their {@code long} values.
+ * Board n of this order has the colex index n [0,2598959] (see {@link BoardIndex}), so a range of indices can be handed to a worker and every worker starts immediately.
+ *
+ * The next board is computed from the previous one with a few bit operations (Gosper's hack).
+ * Boards can be taken one by one, in chunks, or written into a reusable {@link CommunityCards} object.
+ * Generators for flops and turns, and for boards without given dead cards, index the boards like the corresponding methods of {@link BoardIndex}.
+ */
+public class BoardGenerator {
+    private final int end;
+
+    private int index;
+
+    // current board in the deck without dead cards (bit n stands for liveCards[n])
+    private long board;
+
+    // indices of the cards that are not dead, null if there are no dead cards
+    private final int[] liveCards;
+
+    /**
+     * Generator of all five-card boards.
+     */
+    public BoardGenerator() {
+        this(0, CommunityCards.COMBINATIONS_COUNT);
+    }
+
+    /**
+     * Generator of a range of five-card boards.
+     * @param start Colex index of the first board (inclusive).
+     * @param end Colex index after the last board (exclusive).
+     */
+    public BoardGenerator(int start, int end) {
+        this(CommunityCards.CARDS_COUNT, CardSet.EMPTY, start, end);
+    }
+
+    /**
+     * Generator of a range of boards that do not contain dead cards.
+     * @param k Number of board cards [0,5] (fewer than three for the missing cards of a runout).
+     * @param deadCards {@link CardSet} of cards that can not be on the board.
+     * @param start Index of the first board (inclusive, see {@link BoardIndex#rank(long, long)}).
+     * @param end Index after the last board (exclusive).
+     */
+    public BoardGenerator(int k, long deadCards, int start, int end) {
+        if (start < 0 || end > BoardIndex.getCount(k, deadCards) || start > end) {
+            throw new IllegalArgumentException("Invalid board index range [" + start + "," + end + ").");
+        }
+        this.index = start;
+        this.end = end;
+        this.board = (start < end) ? BoardIndex.unrank(start, k) : CardSet.EMPTY;
+
+        if (deadCards == CardSet.EMPTY) {
+            this.liveCards = null;
+        }
+        else {
+            long live = CardSet.ALL & ~deadCards;
+            this.liveCards = new int[CardSet.size(live)];
+            for (int i = 0; live != 0; live = CardSet.removeFirst(live), i++) {
+                this.liveCards[i] = CardSet.first(live);
+            }
+        }
+    }
+
+    /**
+     * @return True if there are boards left.
+     */
+    public boolean hasNext() {
+        return index < end;
+    }
+
+    /**
+     * @return Colex index of the board that {@code next} returns.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return Number of boards left.
+     */
+    public int getRemainingCount() {
+        return end - index;
+    }
+
+    /**
+     * @return {@link CardSet} of the next board.
+     */
+    public long next() {
+        if (index >= end) {
+            throw new IllegalStateException("All boards have been generated.");
+        }
+        long current = board;
+        if (++index < end) {
+            // next larger number with the same number of set bits
+            long lowest = current & -current,
+                    ripple = current + lowest;
+            board = ripple | (((current ^ ripple) >>> 2) >>> Long.numberOfTrailingZeros(lowest));
+        }
+        if (liveCards == null) {
+            return current;
+        }
+
+        long expanded = CardSet.EMPTY;
+        for (; current != 0; current = CardSet.removeFirst(current)) {
+            expanded |= 1L << liveCards[CardSet.first(current)];
+        }
+        return expanded;
+    }
+
+    /**
+     * Fills a reusable object with the next five-card board.
+     * @param communityCards Object whose flop, turn, and river are overwritten (the flop array is reused).
+     * @return The passed object.
+     */
+    public CommunityCards next(CommunityCards communityCards) {
+        long set = next();
+        Card[] flop = communityCards.getFlop();
+        for (int i = 0; i < flop.length; i++, set = CardSet.removeFirst(set)) {
+            flop[i] = CardSet.getCard(CardSet.first(set));
+        }
+        communityCards.setTurn(CardSet.getCard(CardSet.first(set)));
+        communityCards.setRiver(CardSet.getCard(CardSet.first(CardSet.removeFirst(set))));
+        return communityCards;
+    }
+
+    /**
+     * Takes the next boards in a chunk.
+     * @param chunk Array to write the {@link CardSet}s of the boards to.
+     * @return Number of boards that have been written (less than the array length if there are not enough boards left).
+     */
+    public int next(long[] chunk) {
+        int count = Math.min(chunk.length, getRemainingCount());
+        for (int i = 0; i < count; i++) {
+            chunk[i] = next();
+        }
+        return count;
+    }
+}
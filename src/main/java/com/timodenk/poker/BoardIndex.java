@@ -0,0 +1,154 @@
+package com.timodenk.poker;
+
+/**
+ * Static class that maps boards (flop, turn, or river) to dense integer indices and back.
+ * A board of k cards [3,5] is a {@link CardSet}, its index is its position in the colexicographic order of all k-card sets,
+ * which is the ascending order of the {@code long} values: the index of the cards c1 < c2 < ... < ck is (c1 over 1) + (c2 over 2) + ... + (ck over k).
+ *
+ * Sets of fewer cards (e.g. the turn and river that complete a flop) are indexed the same way, so all methods accept 0 to 5 cards.
+ *
+ * The dead-card-aware variants index only the boards that contain none of the given dead cards (e.g. known pocket cards).
+ * They rank the board in the deck without the dead cards, i.e. every card index is reduced by the number of dead cards below it.
+ */
+public class BoardIndex {
+    public static final int MIN_CARDS = 3, MAX_CARDS = CommunityCards.CARDS_COUNT;
+
+    // BINOMIAL[n][k] is n over k (0 if k is greater than n)
+    private static final int[][] BINOMIAL = new int[Deck.CARDS_COUNT + 1][MAX_CARDS + 1];
+
+    static {
+        for (int n = 0; n <= Deck.CARDS_COUNT; n++) {
+            for (int k = 0; k <= MAX_CARDS; k++) {
+                BINOMIAL[n][k] = (k > n) ? 0 : (int)Util.binomial(n, k);
+            }
+        }
+    }
+
+    /**
+     * @param n Number of cards [0,52].
+     * @param k Number of cards to choose [0,5].
+     * @return n over k.
+     */
+    static int binomial(int n, int k) {
+        return BINOMIAL[n][k];
+    }
+
+    /**
+     * @param k Number of board cards [0,5].
+     * @return Number of boards with k cards (e.g. 2598960 rivers).
+     */
+    public static int getCount(int k) {
+        validateCardsCount(k);
+        return BINOMIAL[Deck.CARDS_COUNT][k];
+    }
+
+    /**
+     * @param k Number of board cards [0,5].
+     * @param deadCards {@link CardSet} of cards that can not be on the board.
+     * @return Number of boards with k cards that do not contain any dead card.
+     */
+    public static int getCount(int k, long deadCards) {
+        validateCardsCount(k);
+        return BINOMIAL[Deck.CARDS_COUNT - CardSet.size(deadCards)][k];
+    }
+
+    /**
+     * @param board {@link CardSet} of up to five cards.
+     * @return Colex index of the board among all boards with the same number of cards.
+     */
+    public static int rank(long board) {
+        validateCardsCount(CardSet.size(board));
+        int index = 0;
+        for (int k = 1; board != 0; board = CardSet.removeFirst(board), k++) {
+            index += BINOMIAL[CardSet.first(board)][k];
+        }
+        return index;
+    }
+
+    /**
+     * @param index Colex index [0,getCount(k)).
+     * @param k Number of board cards [0,5].
+     * @return {@link CardSet} of the board with the given index.
+     */
+    public static long unrank(int index, int k) {
+        validateCardsCount(k);
+        if (index < 0 || index >= BINOMIAL[Deck.CARDS_COUNT][k]) {
+            throw new IllegalArgumentException("Board index " + index + " is out of range.");
+        }
+        long board = CardSet.EMPTY;
+        int card = Deck.CARDS_COUNT;
+        for (; k > 0; k--) {
+            // largest card whose binomial coefficient does not exceed the remaining index
+            do {
+                card--;
+            } while (BINOMIAL[card][k] > index);
+            index -= BINOMIAL[card][k];
+            board |= 1L << card;
+        }
+        return board;
+    }
+
+    /**
+     * @param board {@link CardSet} of up to five cards.
+     * @param deadCards {@link CardSet} of cards that can not be on the board.
+     * @return Colex index of the board among all boards with the same number of cards that do not contain any dead card.
+     */
+    public static int rank(long board, long deadCards) {
+        if (CardSet.intersects(board, deadCards)) {
+            throw new IllegalArgumentException("The board contains a dead card.");
+        }
+        return rank(compress(board, deadCards));
+    }
+
+    /**
+     * @param index Index [0,getCount(k,deadCards)).
+     * @param k Number of board cards [0,5].
+     * @param deadCards {@link CardSet} of cards that can not be on the board.
+     * @return {@link CardSet} of the board with the given index among all boards without dead cards.
+     */
+    public static long unrank(int index, int k, long deadCards) {
+        validateCardsCount(k);
+        if (index < 0 || index >= getCount(k, deadCards)) {
+            throw new IllegalArgumentException("Board index " + index + " is out of range.");
+        }
+        return expand(unrank(index, k), deadCards);
+    }
+
+    /**
+     * Maps cards of the deck without dead cards to the card indices of the full deck.
+     * @param set {@link CardSet} whose bit n stands for the n-th card that is not dead.
+     * @param deadCards {@link CardSet} of dead cards.
+     * @return {@link CardSet} of the full deck.
+     */
+    static long expand(long set, long deadCards) {
+        long result = CardSet.EMPTY, live = CardSet.ALL & ~deadCards;
+        for (int position = 0; set != 0; live = CardSet.removeFirst(live), position++) {
+            if (CardSet.first(set) == position) {
+                result |= 1L << CardSet.first(live);
+                set = CardSet.removeFirst(set);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inverse of {@code expand}: every card index is reduced by the number of dead cards below it.
+     * @param set {@link CardSet} without dead cards.
+     * @param deadCards {@link CardSet} of dead cards.
+     * @return {@link CardSet} whose bit n stands for the n-th card that is not dead.
+     */
+    static long compress(long set, long deadCards) {
+        long result = CardSet.EMPTY;
+        for (; set != 0; set = CardSet.removeFirst(set)) {
+            int card = CardSet.first(set);
+            result |= 1L << (card - Long.bitCount(deadCards & ((1L << card) - 1)));
+        }
+        return result;
+    }
+
+    private static void validateCardsCount(int k) {
+        if (k < 0 || k > MAX_CARDS) {
+            throw new IllegalArgumentException("A board consists of up to 5 cards, not " + k + ".");
+        }
+    }
+}
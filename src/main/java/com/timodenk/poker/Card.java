@@ -19,10 +19,34 @@ public class Card implements Comparable<Card> {
         this.suit = suit;
     }
 
+    /**
+     * @param card Another card (of any deck or none).
+     * @return True if both cards have the same rank and suit.
+     */
     public boolean equals(Card card) {
         return this.rank == card.rank && this.suit == card.suit;
     }
 
+    /**
+     * Only objects of the same class are equal, so a {@link Card} never equals a {@link DeckCard} and the relation stays symmetric.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o != null && o.getClass() == this.getClass() && this.equals((Card) o);
+    }
+
+    @Override
+    public int hashCode() {
+        return getIndex();
+    }
+
+    /**
+     * @return The card's index in a {@link CardSet} [0,51].
+     */
+    public int getIndex() {
+        return CardSet.indexOf(this);
+    }
+
     public Card getPermutation(Suit[] permutation) {
         return new Card(this.rank, this.suit.getPermutation(permutation));
     }
@@ -0,0 +1,187 @@
+package com.timodenk.poker;
+
+/**
+ * Static class for sets of cards that are stored in a single {@code long}.
+ * Every card of a standard 52-card deck has one bit, its index: suit ordinal * 13 + rank ordinal (the order of the cards in a new {@link Deck}).
+ * Hence the 13 bits of one suit are adjacent and the rank bits of a suit can be extracted with a shift.
+ *
+ * Union, intersection, and membership checks are single bit operations. The methods convert from and to {@link Card}, {@link StartingHand}, and {@link CommunityCards}.
+ */
+public class CardSet {
+    public static final long EMPTY = 0L,
+            ALL = (1L << Deck.CARDS_COUNT) - 1; // all 52 cards
+
+    static final int RANKS_COUNT = 13;
+
+    // one card object per index
+    private static final Card[] CARDS = new Card[Deck.CARDS_COUNT];
+
+    static {
+        for (Suit suit : Suit.values()) {
+            for (Rank rank : Rank.values()) {
+                CARDS[indexOf(rank, suit)] = new Card(rank, suit);
+            }
+        }
+    }
+
+    /**
+     * @return The index (bit position) of the card with the given rank and suit [0,51].
+     */
+    public static int indexOf(Rank rank, Suit suit) {
+        return suit.ordinal() * RANKS_COUNT + rank.ordinal();
+    }
+
+    /**
+     * @return The index (bit position) of a card [0,51].
+     */
+    public static int indexOf(Card card) {
+        return indexOf(card.rank, card.suit);
+    }
+
+    /**
+     * @param index A card index [0,51].
+     * @return The card with the given index. Always the same object for the same index.
+     */
+    public static Card getCard(int index) {
+        return CARDS[index];
+    }
+
+    /**
+     * @param cards Cards, {@code null} values are ignored.
+     * @return The set containing the given cards.
+     */
+    public static long of(Card... cards) {
+        long set = EMPTY;
+        for (Card card : cards) {
+            if (card != null) {
+                set |= 1L << indexOf(card);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * @param startingHand Pocket cards, unknown ({@code null}) cards are ignored.
+     * @return The set containing both pocket cards.
+     */
+    public static long of(StartingHand startingHand) {
+        return of(startingHand.card1, startingHand.card2);
+    }
+
+    /**
+     * @param communityCards Community cards, unknown ({@code null}) cards are ignored.
+     * @return The set containing all community cards.
+     */
+    public static long of(CommunityCards communityCards) {
+        Card[] flop = communityCards.getFlop();
+        return of(flop[0], flop[1], flop[2], communityCards.getTurn(), communityCards.getRiver());
+    }
+
+    public static long union(long set1, long set2) {
+        return set1 | set2;
+    }
+
+    public static long intersection(long set1, long set2) {
+        return set1 & set2;
+    }
+
+    /**
+     * @return All cards of the first set that are not contained in the second set.
+     */
+    public static long difference(long set1, long set2) {
+        return set1 & ~set2;
+    }
+
+    /**
+     * @return True if both sets have at least one card in common.
+     */
+    public static boolean intersects(long set1, long set2) {
+        return (set1 & set2) != 0;
+    }
+
+    public static boolean contains(long set, int index) {
+        return (set & (1L << index)) != 0;
+    }
+
+    public static boolean contains(long set, Card card) {
+        return contains(set, indexOf(card));
+    }
+
+    /**
+     * @return Number of cards in the set.
+     */
+    public static int size(long set) {
+        return Long.bitCount(set);
+    }
+
+    /**
+     * Iteration over a set: {@code for (long s = set; s != 0; s = CardSet.removeFirst(s)) { int index = CardSet.first(s); ... }}
+     * @param set A non-empty set.
+     * @return The lowest card index of the set.
+     */
+    public static int first(long set) {
+        return Long.numberOfTrailingZeros(set);
+    }
+
+    /**
+     * @return The set without its lowest card.
+     */
+    public static long removeFirst(long set) {
+        return set & (set - 1);
+    }
+
+    /**
+     * @return Rank mask of all cards of the set that have the given suit (bit n is set if the card with rank ordinal n is contained).
+     */
+    public static int getRanks(long set, Suit suit) {
+        return (int) (set >>> (suit.ordinal() * RANKS_COUNT)) & ((1 << RANKS_COUNT) - 1);
+    }
+
+    /**
+     * @return The cards of the set in ascending index order.
+     */
+    public static Card[] toCards(long set) {
+        Card[] cards = new Card[size(set)];
+        for (int i = 0; set != 0; set = removeFirst(set), i++) {
+            cards[i] = getCard(first(set));
+        }
+        return cards;
+    }
+
+    /**
+     * @param set A set of exactly two cards.
+     * @return The shared starting hand object consisting of the two cards.
+     */
+    public static StartingHand toStartingHand(long set) {
+        if (size(set) != 2) {
+            throw new IllegalArgumentException("Set must contain exactly 2 cards");
+        }
+        return StartingHand.get(StartingHand.getId(first(set), first(removeFirst(set))));
+    }
+
+    /**
+     * @param set A set of exactly five cards.
+     * @return Community cards consisting of the five cards (in ascending index order).
+     */
+    public static CommunityCards toCommunityCards(long set) {
+        if (size(set) != CommunityCards.CARDS_COUNT) {
+            throw new IllegalArgumentException("Set must contain exactly 5 cards");
+        }
+        Card[] cards = toCards(set);
+        return new CommunityCards(new Card[] { cards[0], cards[1], cards[2] }, cards[3], cards[4]);
+    }
+
+    /**
+     * @return The cards of the set separated by whitespaces.
+     */
+    public static String toString(long set) {
+        StringBuilder builder = new StringBuilder();
+        for (Card card : toCards(set)) {
+            if (builder.length() > 0) {
+                builder.append(" ");
+            }
+            builder.append(card);
+        }
+        return builder.toString();
+    }
+}
@@ -52,24 +52,17 @@ public class CommunityCards {
 
     private static CommunityCards[] initCombinations() {
         CommunityCards[] communityCards = new CommunityCards[COMBINATIONS_COUNT];
-        Deck deck = new Deck();
-        for (int i = 0, n = 0; i < Deck.CARDS_COUNT; i++) {
-            for (int j = i + 1; j < Deck.CARDS_COUNT; j++) {
-                for (int k = j + 1; k < Deck.CARDS_COUNT; k++) {
-                    for (int l = k + 1; l < Deck.CARDS_COUNT; l++) {
-                        for (int m = l + 1; m < Deck.CARDS_COUNT; m++, n++) {
-                            communityCards[n] = new CommunityCards(
-                                    new Card[] { deck.getNthCard(i), deck.getNthCard(j), deck.getNthCard(k) },
-                                    deck.getNthCard(l),
-                                    deck.getNthCard(m));
-                        }
-                    }
-                }
-            }
+        BoardGenerator boards = new BoardGenerator();
+        for (int n = 0; boards.hasNext(); n++) {
+            communityCards[n] = boards.next(new CommunityCards(new Card[3], null, null));
         }
         return communityCards;
     }
 
+    /**
+     * Materializes all boards. {@link BoardGenerator} yields the same boards lazily and should be preferred.
+     * @return All possible community cards, ordered by their colex index (see {@link BoardGenerator}).
+     */
     public static CommunityCards[] getAllCombinations() {
         return ((ALL_COMBINATIONS == null) ? (ALL_COMBINATIONS = initCombinations()) : ALL_COMBINATIONS);
     }
@@ -1,23 +1,38 @@
 package com.timodenk.poker;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Random;
 
 /**
  * A deck of cards. Used to keep track of which cards are available (e.g. for community cards).
+ *
+ * The available cards are the first {@code size} entries of an array of card indices (see {@link CardSet}).
+ * Taking a card swaps it with the last available entry and decrements {@code size}, so every draw is O(1) and allocation-free (partial Fisher-Yates shuffle).
+ * Because taken cards only move within the available range, a saved snapshot can be restored by resetting {@code size}.
  */
 public class Deck {
-    // all cards n = CARDS_COUNT
+    // all cards n = CARDS_COUNT, the array index is the card index
     private final DeckCard[] cards;
 
     static final int CARDS_COUNT = 52;
 
-    // all cards that are still available (not distributed)
-    private ArrayList<DeckCard> availableCards;
+    // card indices, the first size entries are the cards that are still available (not distributed)
+    private final int[] order;
+
+    // position of every card index in the order array
+    private final int[] position;
+
+    // number of available cards
+    private int size;
+
+    // the available cards as a CardSet
+    private long available;
+
+    // state saved by saveSnapshot
+    private int snapshotSize;
+    private long snapshotAvailable;
 
     // random object to ensure random distribution
-    private Random random = new Random();
+    private Random random = new FastRandom();
 
     /**
      * Default constructor initializes all attributes.
@@ -25,25 +40,48 @@ public class Deck {
      */
     public Deck() {
         this.cards = new DeckCard[CARDS_COUNT];
+        this.order = new int[CARDS_COUNT];
+        this.position = new int[CARDS_COUNT];
 
         int i = 0;
         for (Suit suit : Suit.values()) {
             for (Rank rank : Rank.values()) {
                 this.cards[i] = new DeckCard(this, rank, suit);
+                this.order[i] = i;
+                this.position[i] = i;
                 i++;
             }
         }
 
-        this.shuffle(); // initializes the available cards array
+        this.shuffle(); // initializes the available cards
+    }
+
+    /**
+     * Copy constructor, see {@code fork}.
+     */
+    private Deck(Deck deck) {
+        this.cards = new DeckCard[CARDS_COUNT];
+        for (int i = 0; i < CARDS_COUNT; i++) {
+            this.cards[i] = new DeckCard(this, deck.cards[i].rank, deck.cards[i].suit);
+        }
+        this.order = deck.order.clone();
+        this.position = deck.position.clone();
+        this.size = deck.size;
+        this.available = deck.available;
+        this.snapshotSize = deck.snapshotSize;
+        this.snapshotAvailable = deck.snapshotAvailable;
     }
 
     /**
      * Takes several cards from the deck (marks them as distributed).
+     * Cards that have been taken already and {@code null} values are ignored.
      * @param cards The cards to take from the deck.
      */
     public void takeCards(DeckCard... cards) {
         for (DeckCard card : cards) {
-            this.availableCards.remove(card);
+            if (card != null && CardSet.contains(this.available, card.getIndex())) {
+                remove(card.getIndex());
+            }
         }
     }
 
@@ -53,11 +91,74 @@ public class Deck {
         }
     }
 
+    /**
+     * Takes several cards from the deck.
+     * @param cards {@link CardSet} of the cards to take.
+     * @throws DeckStateException Thrown if at least one of the cards is not available anymore.
+     */
+    public void takeCards(long cards) throws DeckStateException {
+        if ((this.available & cards) != cards) {
+            throw new DeckStateException("Cards were already taken from the deck: " + CardSet.toString(cards & ~this.available));
+        }
+        for (long set = cards; set != 0; set = CardSet.removeFirst(set)) {
+            remove(CardSet.first(set));
+        }
+    }
+
     /**
      * Shuffles the deck, that means all cards are available again.
+     * A saved snapshot is discarded (the snapshot becomes the full deck).
      */
     public void shuffle() {
-        this.availableCards = new ArrayList<DeckCard>(Arrays.asList(this.cards));
+        this.size = CARDS_COUNT;
+        this.available = CardSet.ALL;
+        this.saveSnapshot();
+    }
+
+    /**
+     * Saves the current state (which cards are available) so that it can be restored with {@code reset}.
+     */
+    public void saveSnapshot() {
+        this.snapshotSize = this.size;
+        this.snapshotAvailable = this.available;
+    }
+
+    /**
+     * Restores the state that has been saved with {@code saveSnapshot} in constant time.
+     * All cards that have been taken since then are available again.
+     */
+    public void reset() {
+        this.size = this.snapshotSize;
+        this.available = this.snapshotAvailable;
+    }
+
+    /**
+     * @return {@link CardSet} of all cards that are still available.
+     */
+    public long getAvailableCards() {
+        return this.available;
+    }
+
+    /**
+     * @return Number of cards that are still available.
+     */
+    public int getAvailableCount() {
+        return this.size;
+    }
+
+    /**
+     * Replaces the random object that is used for drawing cards (by default a {@link FastRandom} with an arbitrary seed).
+     * @param random The random object, e.g. a seeded {@link FastRandom} for reproducible draws.
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * @return The random object that is used for drawing cards.
+     */
+    public Random getRandom() {
+        return this.random;
     }
 
     /**
@@ -66,13 +167,21 @@ public class Deck {
      * @throws DeckStateException Thrown e.g. if no more cards are avialable on the deck.
      */
     public DeckCard takeNextCard() throws DeckStateException {
-        if (this.availableCards.size() == 0) {
+        return this.cards[takeNextIndex()];
+    }
+
+    /**
+     * Takes a random card from the deck which is available.
+     * @return The index (see {@link CardSet}) of a random card which is not distributed.
+     * @throws DeckStateException Thrown e.g. if no more cards are avialable on the deck.
+     */
+    public int takeNextIndex() throws DeckStateException {
+        if (this.size == 0) {
             throw new DeckStateException("All cards have been taken already.");
         }
-        int randomIndex = random.nextInt(this.availableCards.size());
-        DeckCard card = this.availableCards.get(randomIndex);
-        this.availableCards.remove(randomIndex);
-        return card;
+        int index = this.order[random.nextInt(this.size)];
+        remove(index);
+        return index;
     }
 
     /**
@@ -97,12 +206,7 @@ public class Deck {
      * @throws DeckStateException Thrown e.g. if there are not enough cards available.
      */
     public DeckCard getCardLike(Card sameCardFromDifferentDeck) throws DeckStateException {
-        for (DeckCard card : this.cards) {
-            if (card.equals(sameCardFromDifferentDeck)) {
-                return card;
-            }
-        }
-        throw new DeckStateException("Card not found: " + sameCardFromDifferentDeck.toString());
+        return this.cards[sameCardFromDifferentDeck.getIndex()];
     }
 
     /**
@@ -113,13 +217,12 @@ public class Deck {
      * @throws DeckStateException Thrown if the card is not available anymore.
      */
     public DeckCard takeCard(Rank rank, Suit suit) throws DeckStateException {
-        for (DeckCard card : availableCards) {
-            if (card.rank == rank && card.suit == suit) {
-                this.availableCards.remove(card);
-                return card;
-            }
+        int index = CardSet.indexOf(rank, suit);
+        if (!CardSet.contains(this.available, index)) {
+            throw new DeckStateException(rank, suit);
         }
-        throw new DeckStateException(rank, suit);
+        remove(index);
+        return this.cards[index];
     }
 
     DeckCard takeCard(Card card) throws DeckStateException {
@@ -134,25 +237,43 @@ public class Deck {
         return this.cards[n];
     }
 
+    /**
+     * @param index A card index [0,51] (see {@link CardSet}).
+     * @return The card of this deck with the given index, regardless of whether it has been taken.
+     */
+    public DeckCard getCard(int index) {
+        return this.cards[index];
+    }
+
+    /**
+     * Creates an independent copy of the deck for another thread.
+     * The copy has the same available cards and the same snapshot, its own cards and its own random object.
+     * @return The forked deck.
+     */
+    public Deck fork() {
+        return new Deck(this);
+    }
+
     /**
      * Clones the deck. This includes the current state, meaning which cards have been distributed.
      * @return The cloned deck.
      */
     @Override
     public Deck clone() {
-        Deck newDeck = new Deck();
-        for (Card card : this.cards) {
-            if (this.availableCards.contains(card)) {
-                // card has not been taken yet
-            }
-            else {
-                try {
-                    newDeck.takeCard(card.rank, card.suit);
-                } catch (DeckStateException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
-        return newDeck;
+        return fork();
+    }
+
+    /**
+     * Marks an available card as taken by swapping it with the last available card.
+     * @param index Index of an available card.
+     */
+    private void remove(int index) {
+        int last = this.order[--this.size],
+                pos = this.position[index];
+        this.order[pos] = last;
+        this.position[last] = pos;
+        this.order[this.size] = index;
+        this.position[index] = this.size;
+        this.available &= ~(1L << index);
     }
-}
\ No newline at end of file
+}
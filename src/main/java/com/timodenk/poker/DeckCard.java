@@ -17,4 +17,14 @@ public class DeckCard extends Card implements Comparable<Card> {
     public boolean equals(DeckCard card) {
         return super.equals(card) && this.deck == card.deck;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DeckCard && this.equals((DeckCard) o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
 }
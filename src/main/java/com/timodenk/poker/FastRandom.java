@@ -0,0 +1,113 @@
+package com.timodenk.poker;
+
+import java.util.Random;
+
+/**
+ * Random number generator for dealing cards (xoroshiro128+, see http://xoshiro.di.unimi.it).
+ * Opposed to {@link Random} the state is not updated atomically and the generator has a period of 2^128 - 1,
+ * so drawing a card costs a few shifts and XORs. The generator is not thread-safe, every thread needs its own object (e.g. every forked {@link Deck}).
+ *
+ * The 128 bit state is derived from a 64 bit seed with SplitMix64, so similar seeds lead to unrelated sequences.
+ * Independent streams for several workers are derived from one seed with {@code jump}: every jump advances the generator by 2^64 numbers,
+ * therefore the streams {@code getStream(seed, 0)}, {@code getStream(seed, 1)}, ... do not overlap and are reproducible.
+ *
+ * Like {@link Random} the generator is serializable; the 128 bit state is serialized with it, so a deserialized generator continues the same sequence.
+ */
+public class FastRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    // polynomial that advances the generator by 2^64 steps
+    private static final long[] JUMP = { 0xdf900294d8f554a5L, 0x170865df4b3201fcL };
+
+    // not initialized by field initializers, because the super constructor sets them through setSeed (serialized, the super class does not call setSeed when it is read)
+    private long s0, s1;
+
+    /**
+     * Creates a generator with a seed that is different for every object.
+     */
+    public FastRandom() {
+        super();
+    }
+
+    /**
+     * @param seed The seed, equal seeds lead to equal sequences.
+     */
+    public FastRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * @param seed Seed of the first stream.
+     * @param stream Index of the stream [0,...).
+     * @return Generator of the given stream, i.e. the generator of the seed jumped {@code stream} times.
+     */
+    public static FastRandom getStream(long seed, int stream) {
+        FastRandom random = new FastRandom(seed);
+        for (int i = 0; i < stream; i++) {
+            random.jump();
+        }
+        return random;
+    }
+
+    /**
+     * Resets the state to the one derived from a seed.
+     * @param seed The seed.
+     */
+    @Override
+    public void setSeed(long seed) {
+        s0 = splitMix64(seed);
+        s1 = splitMix64(seed + 0x9e3779b97f4a7c15L);
+        super.setSeed(seed); // resets the cached Gaussian of the super class
+    }
+
+    /**
+     * Advances the generator by 2^64 numbers.
+     */
+    public void jump() {
+        long t0 = 0, t1 = 0;
+        for (long jump : JUMP) {
+            for (int b = 0; b < 64; b++) {
+                if ((jump & (1L << b)) != 0) {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                }
+                nextLong();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+    }
+
+    @Override
+    public long nextLong() {
+        long s0 = this.s0, s1 = this.s1,
+                result = s0 + s1;
+        s1 ^= s0;
+        this.s0 = Long.rotateLeft(s0, 24) ^ s1 ^ (s1 << 16);
+        this.s1 = Long.rotateLeft(s1, 37);
+        return result;
+    }
+
+    /**
+     * The upper bits of xoroshiro128+ are the better ones, so {@code bits} are taken from the top.
+     */
+    @Override
+    protected int next(int bits) {
+        return (int)(nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @return A well mixed 64 bit value of the input (finalizer of SplitMix64).
+     */
+    private static long splitMix64(long x) {
+        long z = x + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
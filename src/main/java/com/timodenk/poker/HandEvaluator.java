@@ -0,0 +1,255 @@
+package com.timodenk.poker;
+
+/**
+ * Static class that evaluates five to seven cards in a single pass.
+ * Opposed to building all five-card subsets and comparing them (see {@link CardAssessment}), the cards are reduced to one rank bit mask per suit.
+ * The best hand is then determined with bit operations and two precomputed tables that are indexed by a 13-bit rank mask.
+ *
+ * The result of an evaluation is a {@link HandValue}.
+ */
+public class HandEvaluator {
+    private static final int RANKS_COUNT = 13,
+            RANK_MASKS_COUNT = 1 << RANKS_COUNT,
+            NO_STRAIGHT = -1;
+
+    // rank ordinal of the highest card of a straight contained in the rank mask (index), NO_STRAIGHT if there is none
+    private static final byte[] STRAIGHT_HIGH = new byte[RANK_MASKS_COUNT];
+
+    // five highest ranks of a rank mask (index), packed into 20 bits (highest rank in bits 16 to 19)
+    private static final int[] TOP_FIVE = new int[RANK_MASKS_COUNT];
+
+    static {
+        for (int mask = 0; mask < RANK_MASKS_COUNT; mask++) {
+            STRAIGHT_HIGH[mask] = NO_STRAIGHT;
+            for (int high = Rank.ACE.ordinal(); high >= Rank.SIX.ordinal(); high--) {
+                int straight = 0x1F << (high - 4);
+                if ((mask & straight) == straight) {
+                    STRAIGHT_HIGH[mask] = (byte) high;
+                    break;
+                }
+            }
+            // lowest straight: A 2 3 4 5 (five high)
+            int wheel = (1 << Rank.ACE.ordinal()) | 0xF;
+            if (STRAIGHT_HIGH[mask] == NO_STRAIGHT && (mask & wheel) == wheel) {
+                STRAIGHT_HIGH[mask] = (byte) Rank.FIVE.ordinal();
+            }
+
+            int packed = 0, remaining = mask;
+            for (int i = 0; i < 5; i++) {
+                packed <<= 4;
+                if (remaining != 0) {
+                    int rank = highestRank(remaining);
+                    packed |= rank;
+                    remaining &= ~(1 << rank);
+                }
+            }
+            TOP_FIVE[mask] = packed;
+        }
+    }
+
+    /**
+     * Evaluates five to seven cards.
+     * @param cards Array of five to seven distinct cards.
+     * @return The {@link HandValue} of the best hand that can be formed with the given cards.
+     */
+    public static int evaluate(Card[] cards) {
+        if (cards.length < 5 || cards.length > 7) {
+            throw new IllegalArgumentException("Number of cards must be between 5 and 7");
+        }
+        int hearts = 0, diamonds = 0, spades = 0, clubs = 0;
+        for (Card card : cards) {
+            int bit = 1 << card.rank.ordinal();
+            switch (card.suit) {
+                case HEARTS: hearts |= bit; break;
+                case DIAMONDS: diamonds |= bit; break;
+                case SPADES: spades |= bit; break;
+                default: clubs |= bit; break;
+            }
+        }
+        return evaluate(hearts, diamonds, spades, clubs);
+    }
+
+    /**
+     * Evaluates five to seven cards that are given as a {@link CardSet}.
+     * @param cards Set of five to seven cards.
+     * @return The {@link HandValue} of the best hand that can be formed with the given cards.
+     */
+    public static int evaluate(long cards) {
+        return evaluate(
+                CardSet.getRanks(cards, Suit.HEARTS),
+                CardSet.getRanks(cards, Suit.DIAMONDS),
+                CardSet.getRanks(cards, Suit.SPADES),
+                CardSet.getRanks(cards, Suit.CLUBS));
+    }
+
+    /**
+     * Evaluates cards that are given as one rank bit mask per suit (bit n is set if the card with rank ordinal n is present).
+     * The total number of cards must not exceed seven.
+     * @return The {@link HandValue} of the best hand that can be formed with the given cards.
+     */
+    static int evaluate(int hearts, int diamonds, int spades, int clubs) {
+        // rank masks of ranks that occur at least once, twice, three times, four times
+        int one = hearts,
+                two = 0,
+                three = 0,
+                four;
+        two |= one & diamonds; one |= diamonds;
+        three |= two & spades; two |= one & spades; one |= spades;
+        four = three & clubs; three |= two & clubs; two |= one & clubs; one |= clubs;
+
+        return evaluate(one, two, three, four, flushRanks(hearts, diamonds, spades, clubs));
+    }
+
+    /**
+     * Evaluates cards that are given as rank masks of ranks that occur at least once, twice, three times, and four times
+     * (e.g. prepared incrementally by {@link BoardEvaluator}).
+     * @param flush Rank mask of the suit that occurs at least five times, 0 if there is no such suit.
+     * @return The {@link HandValue} of the best hand that can be formed with the given cards.
+     */
+    static int evaluate(int one, int two, int three, int four, int flush) {
+        if (flush != 0) {
+            int high = STRAIGHT_HIGH[flush];
+            if (high == Rank.ACE.ordinal()) {
+                return HandValue.of(HandValue.ROYAL_FLUSH, high << 16);
+            }
+            if (high != NO_STRAIGHT) {
+                return HandValue.of(HandValue.STRAIGHT_FLUSH, high << 16);
+            }
+        }
+
+        if (four != 0) {
+            int quads = highestRank(four);
+            return HandValue.of(HandValue.FOUR_OF_A_KIND, (quads << 16) | ((TOP_FIVE[one & ~(1 << quads)] >> 16) << 12));
+        }
+
+        if (three != 0) {
+            int trips = highestRank(three),
+                    pairs = two & ~(1 << trips);
+            if (pairs != 0) {
+                return HandValue.of(HandValue.FULL_HOUSE, (trips << 16) | (highestRank(pairs) << 12));
+            }
+        }
+
+        if (flush != 0) {
+            return HandValue.of(HandValue.FLUSH, TOP_FIVE[flush]);
+        }
+
+        int straightHigh = STRAIGHT_HIGH[one];
+        if (straightHigh != NO_STRAIGHT) {
+            return HandValue.of(HandValue.STRAIGHT, straightHigh << 16);
+        }
+
+        if (three != 0) {
+            int trips = highestRank(three);
+            return HandValue.of(HandValue.THREE_OF_A_KIND, (trips << 16) | ((TOP_FIVE[one & ~(1 << trips)] >> 12) << 8));
+        }
+
+        if (two != 0) {
+            int pair1 = highestRank(two),
+                    lowerPairs = two & ~(1 << pair1);
+            if (lowerPairs != 0) {
+                int pair2 = highestRank(lowerPairs);
+                return HandValue.of(HandValue.TWO_PAIR, (pair1 << 16) | (pair2 << 12) |
+                        ((TOP_FIVE[one & ~(1 << pair1) & ~(1 << pair2)] >> 16) << 8));
+            }
+            return HandValue.of(HandValue.PAIR, (pair1 << 16) | ((TOP_FIVE[one & ~(1 << pair1)] >> 8) << 4));
+        }
+
+        return HandValue.of(HandValue.HIGH_CARD, TOP_FIVE[one]);
+    }
+
+    /**
+     * Evaluates the cards of a single suit.
+     * @param flush Rank mask of a suit that occurs at least five times.
+     * @return The {@link HandValue} of the royal flush, straight flush, or flush that the ranks form.
+     */
+    static int evaluateFlush(int flush) {
+        int high = STRAIGHT_HIGH[flush];
+        if (high == Rank.ACE.ordinal()) {
+            return HandValue.of(HandValue.ROYAL_FLUSH, high << 16);
+        }
+        if (high != NO_STRAIGHT) {
+            return HandValue.of(HandValue.STRAIGHT_FLUSH, high << 16);
+        }
+        return HandValue.of(HandValue.FLUSH, TOP_FIVE[flush]);
+    }
+
+    /**
+     * Determines the best hand that can be formed with five to seven cards.
+     * @param cards Array of five to seven distinct cards.
+     * @return The best hand. Its cards are sorted descending by rank (the ace of an A 2 3 4 5 straight comes last).
+     */
+    static Hand getBestHand(Card[] cards) {
+        return HandValue.toHand(evaluate(cards), cards);
+    }
+
+    /**
+     * Picks the five cards that form the hand of a given {@link HandValue}.
+     * @param value The value of the best hand that can be formed with the given cards.
+     * @param cards Five to seven cards.
+     * @return Five cards, sorted descending by rank (the ace of an A 2 3 4 5 straight comes last).
+     */
+    static Card[] selectCards(int value, Card[] cards) {
+        int category = HandValue.getCategory(value);
+
+        // number of cards needed per rank ordinal
+        int[] needed = new int[RANKS_COUNT];
+        int r1 = HandValue.getRank(value, 0), r2 = HandValue.getRank(value, 1), r3 = HandValue.getRank(value, 2),
+                r4 = HandValue.getRank(value, 3), r5 = HandValue.getRank(value, 4);
+        switch (category) {
+            case HandValue.ROYAL_FLUSH:
+            case HandValue.STRAIGHT_FLUSH:
+            case HandValue.STRAIGHT:
+                for (int i = 0; i < 5; i++) {
+                    needed[(r1 - i + RANKS_COUNT) % RANKS_COUNT] = 1; // wraps around to the ace for A 2 3 4 5
+                }
+                break;
+            case HandValue.FOUR_OF_A_KIND: needed[r1] = 4; needed[r2] = 1; break;
+            case HandValue.FULL_HOUSE: needed[r1] = 3; needed[r2] = 2; break;
+            case HandValue.THREE_OF_A_KIND: needed[r1] = 3; needed[r2] = 1; needed[r3] = 1; break;
+            case HandValue.TWO_PAIR: needed[r1] = 2; needed[r2] = 2; needed[r3] = 1; break;
+            case HandValue.PAIR: needed[r1] = 2; needed[r2] = 1; needed[r3] = 1; needed[r4] = 1; break;
+            default: needed[r1] = needed[r2] = needed[r3] = needed[r4] = needed[r5] = 1; break;
+        }
+
+        Suit flushSuit = null;
+        if (category == HandValue.ROYAL_FLUSH || category == HandValue.STRAIGHT_FLUSH || category == HandValue.FLUSH) {
+            int[] suitCount = new int[Suit.values().length];
+            for (Card card : cards) {
+                if (++suitCount[card.suit.ordinal()] >= 5) {
+                    flushSuit = card.suit;
+                }
+            }
+        }
+
+        Card[] selection = new Card[5];
+        int selected = 0;
+        boolean wheel = (category == HandValue.STRAIGHT_FLUSH || category == HandValue.STRAIGHT) && r1 == Rank.FIVE.ordinal();
+        for (int i = 0; i < RANKS_COUNT; i++) {
+            // descending rank order, the ace of A 2 3 4 5 is taken last
+            int rank = wheel ? (Rank.FIVE.ordinal() - i + RANKS_COUNT) % RANKS_COUNT : Rank.ACE.ordinal() - i;
+            for (Card card : cards) {
+                if (needed[rank] > 0 && card.rank.ordinal() == rank && (flushSuit == null || card.suit == flushSuit)) {
+                    selection[selected++] = card;
+                    needed[rank]--;
+                }
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * @return The ranks (as rank mask) of a suit that occurs at least five times, 0 if there is no such suit.
+     */
+    private static int flushRanks(int hearts, int diamonds, int spades, int clubs) {
+        if (Integer.bitCount(hearts) >= 5) return hearts;
+        if (Integer.bitCount(diamonds) >= 5) return diamonds;
+        if (Integer.bitCount(spades) >= 5) return spades;
+        if (Integer.bitCount(clubs) >= 5) return clubs;
+        return 0;
+    }
+
+    private static int highestRank(int rankMask) {
+        return 31 - Integer.numberOfLeadingZeros(rankMask);
+    }
+}
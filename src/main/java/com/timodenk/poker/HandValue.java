@@ -0,0 +1,88 @@
+package com.timodenk.poker;
+
+/**
+ * Static class for packed hand strength values.
+ * A hand value is a single int that represents the strength of a poker hand, such that a plain integer comparison of two values matches {@link Hand#compareTo}.
+ *
+ * Bits 20 to 23 hold the hand category (0 for High Card up to 9 for Royal Flush).
+ * Bits 0 to 19 hold up to five rank ordinals (four bits each) in the order in which they decide between two hands of the same category,
+ * e.g. for Two Pair: high pair, low pair, kicker.
+ * {@link HandName} and {@link Hand} objects are only decoded from a value when they are actually needed.
+ */
+public class HandValue {
+    static final int CATEGORY_SHIFT = 20,
+            RANKS_BITS = (1 << CATEGORY_SHIFT) - 1;
+
+    // category values (the higher the better)
+    static final int HIGH_CARD = 0,
+            PAIR = 1,
+            TWO_PAIR = 2,
+            THREE_OF_A_KIND = 3,
+            STRAIGHT = 4,
+            FLUSH = 5,
+            FULL_HOUSE = 6,
+            FOUR_OF_A_KIND = 7,
+            STRAIGHT_FLUSH = 8,
+            ROYAL_FLUSH = 9;
+
+    private static final HandName[] HAND_NAMES = HandName.values();
+
+    /**
+     * Value that is lower than the value of any hand.
+     * Can be used for hands that do not take part in a comparison (e.g. starting hands that are not playable on a board).
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Packs a category and its deciding ranks into a value.
+     * @param category The category (e.g. {@code FULL_HOUSE}).
+     * @param ranks Up to five rank ordinals, four bits each, the most significant in bits 16 to 19.
+     * @return The hand value.
+     */
+    static int of(int category, int ranks) {
+        return (category << CATEGORY_SHIFT) | (ranks & RANKS_BITS);
+    }
+
+    /**
+     * @param value A hand value.
+     * @return The category of the value (0 for High Card up to 9 for Royal Flush).
+     */
+    static int getCategory(int value) {
+        return value >>> CATEGORY_SHIFT;
+    }
+
+    /**
+     * @param value A hand value.
+     * @param position Position of the rank (0 is the most significant one).
+     * @return The ordinal of the rank at the given position.
+     */
+    static int getRank(int value, int position) {
+        return (value >> (16 - 4 * position)) & 0xF;
+    }
+
+    /**
+     * @param value A hand value.
+     * @return The hand name (e.g. Full House) of the value.
+     */
+    public static HandName getHandName(int value) {
+        return HAND_NAMES[ROYAL_FLUSH - getCategory(value)];
+    }
+
+    /**
+     * Compares two hand values.
+     * @return -1 if v2 is better than v1; 0 if both hands have the same value; 1 if v1 is better than v2.
+     */
+    public static int compare(int v1, int v2) {
+        return Integer.compare(v1, v2);
+    }
+
+    /**
+     * Decodes a value into a {@link Hand}.
+     * @param value The value of the best hand that can be formed with the given cards.
+     * @param cards Five to seven cards that the value has been determined from.
+     * @return The hand consisting of the five cards that form the value.
+     */
+    public static Hand toHand(int value, Card[] cards) {
+        return new Hand(value, HandEvaluator.selectCards(value, cards));
+    }
+}
@@ -1,6 +1,7 @@
 package com.timodenk.poker;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -12,9 +13,13 @@ public class StartingHand {
 
     public static final int ALL_COUNT = 1326;
 
-    public final int ID;
+    public final int ID; // position in getAll(), -1 if a card is unknown (null)
 
-    private static StartingHand[] allStartingHands = getAll();
+    // one instance per ID
+    private static final StartingHand[] ALL = createAll();
+
+    // ID for every ordered pair of card indices (index1 * 52 + index2), -1 for pairs of the same card
+    private static final short[] IDS = createIds();
 
     /**
      * Two poker cards (no specific order).
@@ -25,7 +30,7 @@ public class StartingHand {
     public StartingHand(Card card1, Card card2) {
         this.card1 = card1;
         this.card2 = card2;
-        this.ID = getId(this);
+        this.ID = (card1 == null || card2 == null) ? -1 : getId(card1.getIndex(), card2.getIndex());
     }
 
     private StartingHand(Card card1, Card card2, int id) {
@@ -34,13 +39,33 @@ public class StartingHand {
         this.ID = id;
     }
 
-    private static int getId(StartingHand startingHand) {
-        for (int i = 0; i < allStartingHands.length; i++) {
-            if (allStartingHands[i].equalsNonIdBased(startingHand)) { // ID is not set yet so the normal equals method can not be used
-                return i;
-            }
+    /**
+     * Constant time lookup of a starting hand ID.
+     * @param index1 Index of a card (see {@link CardSet}).
+     * @param index2 Index of another card.
+     * @return The ID of the starting hand consisting of both cards (the order of the cards does not matter).
+     */
+    public static int getId(int index1, int index2) {
+        int id = IDS[index1 * Deck.CARDS_COUNT + index2];
+        if (id < 0) {
+            throw new IllegalArgumentException("No ID was found for the given starting hand.");
         }
-        throw new IllegalArgumentException("No ID was found for the given starting hand.");
+        return id;
+    }
+
+    /**
+     * @param id A starting hand ID [0,1325].
+     * @return The starting hand with the given ID. Always the same object for the same ID.
+     */
+    public static StartingHand get(int id) {
+        return ALL[id];
+    }
+
+    /**
+     * @return The shared starting hand object consisting of two cards (the order of the cards does not matter).
+     */
+    public static StartingHand of(Card card1, Card card2) {
+        return ALL[getId(card1.getIndex(), card2.getIndex())];
     }
 
     /**
@@ -98,9 +123,13 @@ public class StartingHand {
     }
 
     /**
-     * @return An array of all 1326 possible starting hands.
+     * @return An array of all 1326 possible starting hands. The array index of a hand is its ID.
      */
     public static StartingHand[] getAll() {
+        return ALL.clone();
+    }
+
+    private static StartingHand[] createAll() {
         StartingHand[] pocketCards = new StartingHand[ALL_COUNT];
         int i = 0;
         for (Rank rank1 : Rank.values()) {
@@ -118,7 +147,7 @@ public class StartingHand {
                             continue; // no flippable combination for pairs (e.g. not both, (2D,2H) and (2H,2D)
                         }
 
-                        pocketCards[i] = new StartingHand(new Card(rank1, suit1), new Card(rank2, suit2), i);
+                        pocketCards[i] = new StartingHand(CardSet.getCard(CardSet.indexOf(rank1, suit1)), CardSet.getCard(CardSet.indexOf(rank2, suit2)), i);
                         i++;
                     }
                 }
@@ -127,15 +156,42 @@ public class StartingHand {
         return pocketCards;
     }
 
+    /**
+     * @return {@link CardSet} of both cards.
+     */
+    public long getCardSet() {
+        return CardSet.of(this);
+    }
+
+    private static short[] createIds() {
+        short[] ids = new short[Deck.CARDS_COUNT * Deck.CARDS_COUNT];
+        Arrays.fill(ids, (short) -1);
+        for (StartingHand startingHand : ALL) {
+            int index1 = startingHand.card1.getIndex(),
+                    index2 = startingHand.card2.getIndex();
+            ids[index1 * Deck.CARDS_COUNT + index2] = (short) startingHand.ID;
+            ids[index2 * Deck.CARDS_COUNT + index1] = (short) startingHand.ID;
+        }
+        return ids;
+    }
+
     static boolean playable(StartingHand... startingHands) {
-        Deck deck = new Deck();
-        try {
-            for (StartingHand startingHand : startingHands) {
-                deck.takeCard(startingHand.card1);
-                deck.takeCard(startingHand.card2);
+        return playable(startingHands, CardSet.EMPTY);
+    }
+
+    /**
+     * Checks whether starting hands can be played together with a set of other cards.
+     * @param startingHands Starting hands.
+     * @param cards {@link CardSet} of other cards (e.g. the community cards).
+     * @return True if no card occurs twice.
+     */
+    static boolean playable(StartingHand[] startingHands, long cards) {
+        for (StartingHand startingHand : startingHands) {
+            long hand = startingHand.getCardSet();
+            if (CardSet.size(hand) != 2 || CardSet.intersects(cards, hand)) {
+                return false;
             }
-        } catch (DeckStateException e) {
-            return false;
+            cards |= hand;
         }
         return true;
     }
@@ -145,89 +201,59 @@ public class StartingHand {
     }
 
     public static boolean playable(StartingHand[] startingHands, CommunityCards communityCards) {
-        // quick way (assumes that the board is valid and the starting hand is valid)
-        if (startingHands.length == 1) {
-            Card[] communityArray = communityCards.getAll();
-            for (int i = 0; i < communityArray.length; i++) {
-                if (communityArray[i].equals(startingHands[0].card1) || communityArray[i].equals(startingHands[0].card2)) {
-                    return false;
-                }
-            }
-            return !(startingHands[0].card1.equals(startingHands[0].card2));
+        long board = CardSet.of(communityCards);
+        if (CardSet.size(board) != CommunityCards.CARDS_COUNT) {
+            return false; // the same card occurs twice on the board
         }
-
-
-        Deck deck = new Deck();
-        try {
-            for (StartingHand startingHand : startingHands) {
-                deck.takeCard(startingHand.card1);
-                deck.takeCard(startingHand.card2);
-            }
-            deck.takeCards(communityCards.getAll());
-        } catch (DeckStateException e) {
-            return false;
-        }
-        return true;
+        return playable(startingHands, board);
     }
 
     // checks whether two valid starting hands (not the same card contained) are playable against each other
     public static boolean validHandsPlayable(StartingHand hand1, StartingHand hand2) {
-        return !(hand1.card1.equals(hand2.card1) || hand1.card1.equals(hand2.card2) || hand1.card2.equals(hand2.card1) || hand1.card2.equals(hand2.card2));
+        return !CardSet.intersects(hand1.getCardSet(), hand2.getCardSet());
     }
 
+    /**
+     * Enumerates the starting hand combinations that are isomorphic to the given one (see {@link SuitIsomorphism}).
+     * Combinations that contain the same starting hands at different positions are considered equal, only the first of them is returned.
+     * @param startingHands Starting hands of different players.
+     * @return All distinct suit permutations of the starting hands, the unchanged combination first. Empty if the starting hands are not playable.
+     */
     public static StartingHand[][] getPermutations(StartingHand... startingHands) {
-        List<StartingHand[]> permutations = new ArrayList<StartingHand[]>();
-        Suit[][] suitPermutations = Suit.getPermutations();
-        for (Suit[] suitPermutation : suitPermutations) {
-            StartingHand[] permutation = new StartingHand[startingHands.length];
-            for (int i = 0; i < startingHands.length; i++) {
-                permutation[i] = startingHands[i].getPermutation(suitPermutation);
-            }
-            permutations.add(permutation);
+        if (!playable(startingHands)) {
+            return new StartingHand[0][];
+        }
+
+        long[] sets = new long[startingHands.length];
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = startingHands[i].getCardSet();
         }
 
-        // remove duplicates and non playable cards
-        for (int i = 0; i < permutations.size(); i++) {
-            if (!StartingHand.playable(permutations.get(i))) {
-                permutations.remove(i);
-                i--;
+        List<StartingHand[]> permutations = new ArrayList<StartingHand[]>();
+        List<long[]> sortedVariants = new ArrayList<long[]>();
+        for (long[] variant : SuitIsomorphism.getVariants(sets)) {
+            // the order of the starting hands does not matter for duplicates
+            long[] sorted = variant.clone();
+            Arrays.sort(sorted);
+            boolean duplicate = false;
+            for (long[] sortedVariant : sortedVariants) {
+                if (Arrays.equals(sorted, sortedVariant)) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (duplicate) {
                 continue;
             }
+            sortedVariants.add(sorted);
 
-            // search for duplicates in following entries
-            for (int j = i + 1; j < permutations.size(); j++) {
-                boolean allContained = true;
-
-                // check all duplicate starting hands
-                for (int k = 0; k < permutations.get(i).length; k++) {
-                    boolean matchFound = false;
-                    // compare with all potential duplicate starting hands
-                    for (int l = 0; l < permutations.get(i).length; l++) {
-                        if (permutations.get(i)[k].equals(permutations.get(j)[l])) {
-                            matchFound = true;
-                        }
-                    }
-                    if (!matchFound) {
-                        allContained = false;
-                    }
-                }
-                if (allContained) {
-                    permutations.remove(j);
-                    j--;
-                }
+            StartingHand[] permutation = new StartingHand[variant.length];
+            for (int i = 0; i < variant.length; i++) {
+                permutation[i] = CardSet.toStartingHand(variant[i]);
             }
+            permutations.add(permutation);
         }
-        StartingHand[][] output = new StartingHand[permutations.size()][];
-        for (int i = 0; i < permutations.size(); i++) {
-            output[i] = permutations.get(i);
-        }
-        return output;
-    }
-
-    private boolean equalsNonIdBased(StartingHand h) {
-        boolean sameOrder = this.card1.equals(h.card1) && this.card2.equals(h.card2),
-                mixed = this.card1.equals(h.card2) && this.card2.equals(h.card1);
-        return sameOrder || mixed;
+        return permutations.toArray(new StartingHand[permutations.size()][]);
     }
 
     public boolean equals(StartingHand h) {
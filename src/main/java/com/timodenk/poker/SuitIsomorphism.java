@@ -0,0 +1,211 @@
+package com.timodenk.poker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static class for suit isomorphism of card sets.
+ * Suits are equivalent in Hold'em, so a situation (e.g. several starting hands and community cards) has the same outcome after its suits have been permuted.
+ * A situation is given as an ordered tuple of {@link CardSet}s (e.g. player 1, player 2, board).
+ * Among all of its 24 suit permutations the lexicographically smallest tuple is the canonical form; the number of distinct permuted tuples is the multiplicity.
+ */
+public class SuitIsomorphism {
+    public static final int PERMUTATIONS_COUNT = 24;
+
+    private static final int SUITS_COUNT = 4,
+            RANK_BITS = (1 << CardSet.RANKS_COUNT) - 1;
+
+    // all permutations of the suit ordinals, PERMUTATIONS[p][s] is the suit ordinal that suit ordinal s is mapped to
+    private static final int[][] PERMUTATIONS = new int[PERMUTATIONS_COUNT][];
+
+    // index of the inverse of every permutation
+    private static final int[] INVERSES = new int[PERMUTATIONS_COUNT];
+
+    static {
+        int p = 0;
+        for (int a = 0; a < SUITS_COUNT; a++) {
+            for (int b = 0; b < SUITS_COUNT; b++) {
+                for (int c = 0; c < SUITS_COUNT; c++) {
+                    int d = 6 - a - b - c;
+                    if (a == b || a == c || b == c || d < 0 || d == a || d == b || d == c) {
+                        continue;
+                    }
+                    PERMUTATIONS[p++] = new int[] { a, b, c, d };
+                }
+            }
+        }
+        for (int i = 0; i < PERMUTATIONS_COUNT; i++) {
+            for (int j = 0; j < PERMUTATIONS_COUNT; j++) {
+                boolean inverse = true;
+                for (int s = 0; s < SUITS_COUNT; s++) {
+                    inverse &= PERMUTATIONS[j][PERMUTATIONS[i][s]] == s;
+                }
+                if (inverse) {
+                    INVERSES[i] = j;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a suit permutation to a set of cards.
+     * @param set A {@link CardSet}.
+     * @param permutation Index of the permutation [0,23]. Permutation 0 is the identity.
+     * @return The set with permuted suits.
+     */
+    public static long permute(long set, int permutation) {
+        int[] suits = PERMUTATIONS[permutation];
+        long result = 0;
+        for (int s = 0; s < SUITS_COUNT; s++) {
+            result |= ((set >>> (s * CardSet.RANKS_COUNT)) & RANK_BITS) << (suits[s] * CardSet.RANKS_COUNT);
+        }
+        return result;
+    }
+
+    /**
+     * Applies a suit permutation to every set of a tuple.
+     * @param sets A tuple of {@link CardSet}s.
+     * @param permutation Index of the permutation [0,23].
+     * @return A new tuple with permuted suits.
+     */
+    public static long[] permute(long[] sets, int permutation) {
+        long[] result = new long[sets.length];
+        for (int i = 0; i < sets.length; i++) {
+            result[i] = permute(sets[i], permutation);
+        }
+        return result;
+    }
+
+    /**
+     * @return Index of the permutation that reverts the given permutation.
+     */
+    public static int inverse(int permutation) {
+        return INVERSES[permutation];
+    }
+
+    /**
+     * @param permutation Index of a permutation [0,23].
+     * @param suit A suit.
+     * @return The suit that the given suit is mapped to.
+     */
+    public static Suit permute(Suit suit, int permutation) {
+        return Suit.values()[PERMUTATIONS[permutation][suit.ordinal()]];
+    }
+
+    /**
+     * @param sets A tuple of {@link CardSet}s.
+     * @return The canonical form of the tuple (the lexicographically smallest of all permuted tuples).
+     */
+    public static long[] canonicalize(long... sets) {
+        long[] best = sets.clone();
+        for (int p = 1; p < PERMUTATIONS_COUNT; p++) {
+            long[] permuted = permute(sets, p);
+            if (compare(permuted, best) < 0) {
+                best = permuted;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param sets A tuple of {@link CardSet}s.
+     * @return True if the tuple is its own canonical form.
+     */
+    public static boolean isCanonical(long... sets) {
+        for (int p = 1; p < PERMUTATIONS_COUNT; p++) {
+            if (compare(permute(sets, p), sets) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Single set variant of {@code isCanonical(long...)} that does not allocate memory.
+     * @param set A {@link CardSet} (e.g. a board).
+     * @return True if the set is the smallest of all its suit permutations.
+     */
+    public static boolean isCanonical(long set) {
+        for (int p = 1; p < PERMUTATIONS_COUNT; p++) {
+            if (permute(set, p) < set) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Single set variant of {@code getMultiplicity(long...)} that does not allocate memory.
+     * @param set A {@link CardSet} (e.g. a board).
+     * @return Number of distinct sets that the suit permutations map the set to.
+     */
+    public static int getMultiplicity(long set) {
+        int stabilizerSize = 0;
+        for (int p = 0; p < PERMUTATIONS_COUNT; p++) {
+            if (permute(set, p) == set) {
+                stabilizerSize++;
+            }
+        }
+        return PERMUTATIONS_COUNT / stabilizerSize;
+    }
+
+    /**
+     * @param sets A tuple of {@link CardSet}s.
+     * @return Number of distinct tuples that the suit permutations map the tuple to (24 divided by the number of permutations that leave the tuple unchanged).
+     */
+    public static int getMultiplicity(long... sets) {
+        return PERMUTATIONS_COUNT / getStabilizer(sets).length;
+    }
+
+    /**
+     * @param sets A tuple of {@link CardSet}s.
+     * @return Indices of all permutations that leave every set of the tuple unchanged (always contains the identity 0).
+     */
+    public static int[] getStabilizer(long... sets) {
+        int[] stabilizer = new int[PERMUTATIONS_COUNT];
+        int count = 0;
+        for (int p = 0; p < PERMUTATIONS_COUNT; p++) {
+            if (compare(permute(sets, p), sets) == 0) {
+                stabilizer[count++] = p;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(stabilizer, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Enumerates the distinct isomorphic variants of a tuple.
+     * @param sets A tuple of {@link CardSet}s.
+     * @return All distinct tuples that the suit permutations map the tuple to, the unchanged tuple first.
+     */
+    public static long[][] getVariants(long... sets) {
+        List<long[]> variants = new ArrayList<>();
+        for (int p = 0; p < PERMUTATIONS_COUNT; p++) {
+            long[] permuted = permute(sets, p);
+            boolean duplicate = false;
+            for (long[] variant : variants) {
+                if (compare(variant, permuted) == 0) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                variants.add(permuted);
+            }
+        }
+        return variants.toArray(new long[variants.size()][]);
+    }
+
+    /**
+     * Lexicographic comparison of two tuples of the same length.
+     */
+    private static int compare(long[] sets1, long[] sets2) {
+        for (int i = 0; i < sets1.length; i++) {
+            if (sets1[i] != sets2[i]) {
+                return Long.compare(sets1[i], sets2[i]);
+            }
+        }
+        return 0;
+    }
+}
@@ -13,13 +13,32 @@ import java.util.concurrent.*;
  * It also standardizes several situations like "one player, random cards, no opponents".
  * However, the most generalized function is called {@code assess} which takes any possible poker situation and assesses the outcome for all players.
  * All outcome determinations are based on statistical observation. This is the random generation of all undefined cards and outcome observation multiple times.
+ * If all pocket cards are known and there are fewer possible runouts than iterations, every runout is played out exactly once instead (see {@link EnumerationCallable}).
+ * Such exact outcomes can also be requested regardless of the number of runouts ({@code assessExact}).
+ * Heads-up preflop situations without dead cards are looked up if a {@link PreflopEquityTable} has been set and the caller does not request counts per hand
+ * (the table only holds win, split, and loss counts, so the overloads with a {@code handCounts} parameter have to be called with false).
  *
  * The class is optionally performing the statistical observation on multiple threads for higher performance.
+ * The threads are taken from the shared {@link ExecutionContext}; small iteration counts are processed on the calling thread.
+ * For a seeded context the outcomes are reproducible (see {@link ExecutionContext#setSeed(Long)}).
  */
 class Assessment {
 
-    private static final int THREAD_COUNT = 12, // number of threads
-            DEFAULT_ITERATIONS = 10000; // number of default iterations per game situation
+    private static final int MIN_ITERATIONS_PER_THREAD = 2000, // fewer iterations are not worth handing to another thread
+            DEFAULT_ITERATIONS = 10000, // number of default iterations per game situation
+            RANGES_PER_THREAD = 4, // runout index ranges per thread of an exact assessment
+            FIRST_BATCH_ITERATIONS = MIN_ITERATIONS_PER_THREAD; // iterations of the first batch of an assessment to a precision (split among all threads)
+
+    // exact heads-up preflop outcomes, null if no table has been set
+    private static volatile PreflopEquityTable preflopEquityTable = null;
+
+    /**
+     * Sets the table that heads-up preflop situations without dead cards are looked up in (instead of being played out) if no counts per hand are requested.
+     * @param table The table (e.g. loaded with {@link PreflopEquityTable#load(String)}), null to play out all situations.
+     */
+    static void setPreflopEquityTable(PreflopEquityTable table) {
+        preflopEquityTable = table;
+    }
 
     /**
      * Determines the win probabilities for all possible starting hands statistically.
@@ -110,6 +129,40 @@ class Assessment {
      * @return Array of {@link Outcome} objects of which each is connected to exactly one {@link StartingHand} object (in the same order as passed in the pocket cards parameter).
      */
     static Outcome[] assess(final Deck deck, final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final int iterations) {
+        return assess(deck, pocketCards, communityCards, takenCards, iterations, SamplingMode.UNIFORM);
+    }
+
+    /**
+     * Statistically assesses any given poker situation for all participating players with a variance-reduced way of sampling the unknown cards.
+     * Stratified sampling reaches the precision of independent sampling with fewer iterations (see {@link SamplingMode}).
+     * The outcomes' standard errors (see {@link Outcome#getStandardError()}) assume independent samples and are therefore not a measure of the achieved precision.
+     * The method is multi-threaded.
+     * @param deck A deck of cards that the other cards which are passed as parameters are taken from.
+     * @param pocketCards Array holding the pocket cards of the players at the table. The number of array element defines the number of players, for unknown cards or pocket hands leave the value at {@code null}.
+     * @param communityCards Array of community cards. For unknown cards leave the value at null. If all cards are unknown null can be passed.
+     * @param takenCards Array of cards that are and not in the game anymore; like flashed or folded cards.
+     * @param iterations Number of iterations for determining the outcomes.
+     * @param mode How the unknown cards are sampled.
+     * @return Array of {@link Outcome} objects of which each is connected to exactly one {@link StartingHand} object (in the same order as passed in the pocket cards parameter).
+     */
+    static Outcome[] assess(final Deck deck, final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final int iterations, final SamplingMode mode) {
+        return assess(deck, pocketCards, communityCards, takenCards, iterations, mode, true);
+    }
+
+    /**
+     * Statistically assesses any given poker situation for all participating players (see {@code assess} with a sampling mode).
+     * Without counts per hand, heads-up preflop situations without dead cards are looked up if a {@link PreflopEquityTable} has been set.
+     * @param deck A deck of cards that the other cards which are passed as parameters are taken from.
+     * @param pocketCards Array holding the pocket cards of the players at the table (null for unknown cards or pocket hands).
+     * @param communityCards Array of community cards (null for unknown cards, null if all cards are unknown).
+     * @param takenCards Array of cards that are and not in the game anymore; like flashed or folded cards.
+     * @param iterations Number of iterations for determining the outcomes.
+     * @param mode How the unknown cards are sampled.
+     * @param handCounts True if the outcomes need the counts per {@link HandName} (e.g. for {@link Outcome#toTable()}).
+     * @return Array of {@link Outcome} objects of which each is connected to exactly one {@link StartingHand} object (in the same order as passed in the pocket cards parameter).
+     */
+    static Outcome[] assess(final Deck deck, final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final int iterations, final SamplingMode mode,
+                            final boolean handCounts) {
         final long start = System.nanoTime(); // performance
 
         final int playerCount = pocketCards.length;
@@ -118,33 +171,229 @@ class Assessment {
             return null;
         }
 
+        // all pocket cards are known and there are only few runouts: play out every runout instead of sampling
+        long[] knownPocketCards = getKnownPocketCards(pocketCards);
+        Outcome[] preflopOutcomes = handCounts ? null : lookUpPreflop(knownPocketCards, communityCards, takenCards);
+        if (preflopOutcomes != null) {
+            return preflopOutcomes;
+        }
+        if (knownPocketCards != null) {
+            long knownCommunityCards = (communityCards == null) ? CardSet.EMPTY : CardSet.of(communityCards),
+                    deadCards = CardSet.of(takenCards);
+            if (EnumerationCallable.getRunoutCount(knownPocketCards, knownCommunityCards, deadCards) < iterations) {
+                return enumerate(knownPocketCards, knownCommunityCards, deadCards, handCounts);
+            }
+        }
+
         Outcome outcome[] = new Outcome[playerCount]; // declare and initialize (took a while to find that NullPointerException...)
-        for (int i = 0; i < playerCount; i++) { outcome[i] = new Outcome(); }
+        for (int i = 0; i < playerCount; i++) { outcome[i] = new Outcome(handCounts); }
+
+        ExecutionContext context = ExecutionContext.getDefault();
+        final int threadCount = Math.max(1, Math.min(context.getParallelism(), iterations / MIN_ITERATIONS_PER_THREAD));
 
-        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread t = new Thread(r);
+        List<AssessmentCallable> outcomesCallables = createCallables(context, deck, pocketCards, communityCards, takenCards, threadCount, mode);
+        setIterations(outcomesCallables, iterations);
+        invokeAll(context, outcomesCallables, outcome);
+
+        // performance measurements
+        //System.out.printf("%9.4f e-6 s (x%d hands)\n", (double)(System.nanoTime() - start) / 1e3 / Outcome.getCount(outcome), Outcome.getCount(outcome));
+        return outcome;
+    }
 
-                // these threads may not prevent the JVM from exiting
-                t.setDaemon(true);
-                return t;
+    /**
+     * Statistically assesses a poker situation until the win rates of all players are known with a given precision.
+     * The situation is played out in batches; after every batch the outcomes are checked and no further batch is started once all players' standard errors are small enough.
+     * The first batch has a fixed size regardless of the number of threads and every further batch is twice as large as the previous one,
+     * so lopsided situations finish after a few thousand iterations while close ones use up to the whole budget.
+     * Exact outcomes (enumerated or looked up, see {@link Outcome#isExact()}) are returned if they are cheaper than the budget.
+     * The achieved precision can be read from the returned outcomes (see {@link Outcome#getStandardError()} and {@link Outcome#getConfidenceInterval(double)}).
+     * @param deck A deck of cards that the other cards which are passed as parameters are taken from.
+     * @param pocketCards Array holding the pocket cards of the players at the table (null for unknown cards or pocket hands).
+     * @param communityCards Array of community cards (null for unknown cards, null if all cards are unknown).
+     * @param takenCards Array of cards that are and not in the game anymore; like flashed or folded cards.
+     * @param targetStandardError Standard error of the win rates [0,1] at which the assessment stops (e.g. 0.001). It is compared to the half width of the confidence interval for z = 1, which does not become 0 for win rates of 0 or 1.
+     * @param maxIterations Maximum number of iterations, even if the target has not been reached.
+     * @return Array of {@link Outcome} objects of which each is connected to exactly one {@link StartingHand} object (in the same order as passed in the pocket cards parameter).
+     */
+    static Outcome[] assessToPrecision(final Deck deck, final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final double targetStandardError, final int maxIterations) {
+        return assessToPrecision(deck, pocketCards, communityCards, takenCards, 1, 2 * targetStandardError, maxIterations);
+    }
+
+    /**
+     * Statistically assesses a poker situation until the confidence intervals of all players' win rates are narrow enough (see {@code assessToPrecision} with a target standard error).
+     * @param deck A deck of cards that the other cards which are passed as parameters are taken from.
+     * @param pocketCards Array holding the pocket cards of the players at the table (null for unknown cards or pocket hands).
+     * @param communityCards Array of community cards (null for unknown cards, null if all cards are unknown).
+     * @param takenCards Array of cards that are and not in the game anymore; like flashed or folded cards.
+     * @param z Quantile of the standard normal distribution that defines the confidence level (e.g. 1.96 for 95%).
+     * @param targetWidth Width of the confidence intervals [0,1] at which the assessment stops (e.g. 0.01 for win rates +/- 0.005).
+     * @param maxIterations Maximum number of iterations, even if the target has not been reached.
+     * @return Array of {@link Outcome} objects of which each is connected to exactly one {@link StartingHand} object (in the same order as passed in the pocket cards parameter).
+     */
+    static Outcome[] assessToPrecision(final Deck deck, final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final double z, final double targetWidth, final int maxIterations) {
+        return assessToPrecision(deck, pocketCards, communityCards, takenCards, z, targetWidth, maxIterations, true);
+    }
+
+    /**
+     * Statistically assesses a poker situation until the confidence intervals of all players' win rates are narrow enough (see {@code assessToPrecision} with a target standard error).
+     * Without counts per hand, heads-up preflop situations without dead cards are looked up if a {@link PreflopEquityTable} has been set.
+     * @param deck A deck of cards that the other cards which are passed as parameters are taken from.
+     * @param pocketCards Array holding the pocket cards of the players at the table (null for unknown cards or pocket hands).
+     * @param communityCards Array of community cards (null for unknown cards, null if all cards are unknown).
+     * @param takenCards Array of cards that are and not in the game anymore; like flashed or folded cards.
+     * @param z Quantile of the standard normal distribution that defines the confidence level (e.g. 1.96 for 95%).
+     * @param targetWidth Width of the confidence intervals [0,1] at which the assessment stops (e.g. 0.01 for win rates +/- 0.005).
+     * @param maxIterations Maximum number of iterations, even if the target has not been reached.
+     * @param handCounts True if the outcomes need the counts per {@link HandName} (e.g. for {@link Outcome#toTable()}).
+     * @return Array of {@link Outcome} objects of which each is connected to exactly one {@link StartingHand} object (in the same order as passed in the pocket cards parameter).
+     */
+    static Outcome[] assessToPrecision(final Deck deck, final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final double z, final double targetWidth, final int maxIterations,
+                                       final boolean handCounts) {
+        final int playerCount = pocketCards.length;
+
+        if (pocketCards.length < 1) {
+            return null;
+        }
+
+        // exact outcomes are known or cheaper than the iteration budget
+        long[] knownPocketCards = getKnownPocketCards(pocketCards);
+        Outcome[] preflopOutcomes = handCounts ? null : lookUpPreflop(knownPocketCards, communityCards, takenCards);
+        if (preflopOutcomes != null) {
+            return preflopOutcomes;
+        }
+        if (knownPocketCards != null) {
+            long knownCommunityCards = (communityCards == null) ? CardSet.EMPTY : CardSet.of(communityCards),
+                    deadCards = CardSet.of(takenCards);
+            if (EnumerationCallable.getRunoutCount(knownPocketCards, knownCommunityCards, deadCards) <= maxIterations) {
+                return enumerate(knownPocketCards, knownCommunityCards, deadCards, handCounts);
             }
-        });
+        }
+
+        Outcome outcome[] = new Outcome[playerCount];
+        for (int i = 0; i < playerCount; i++) { outcome[i] = new Outcome(handCounts); }
+
+        ExecutionContext context = ExecutionContext.getDefault();
+        final int threadCount = Math.max(1, Math.min(context.getParallelism(), maxIterations / MIN_ITERATIONS_PER_THREAD));
+
+        // the batches grow geometrically from a first batch that does not depend on the number of threads
+        // (the stopping rule relies on the standard error of independent samples, so there is no variance reduction)
+        List<AssessmentCallable> outcomesCallables = createCallables(context, deck, pocketCards, communityCards, takenCards, threadCount, SamplingMode.UNIFORM);
+        long batchSize = FIRST_BATCH_ITERATIONS;
+        for (int done = 0; done < maxIterations && !isPrecise(outcome, z, targetWidth); batchSize *= 2) {
+            int batchIterations = (int)Math.min(maxIterations - done, batchSize);
+            setIterations(outcomesCallables, batchIterations);
+            invokeAll(context, outcomesCallables, outcome);
+            done += batchIterations;
+        }
+        return outcome;
+    }
+
+    /**
+     * Determines the exact outcomes of a situation in which the pocket cards of all players are known (e.g. three to six players all-in preflop)
+     * by playing out every possible runout once instead of sampling.
+     * The runouts are split among the threads of the {@link ExecutionContext} by index ranges, runouts that are suit isomorphic with respect to all known cards are played out only once.
+     * Preflop with three players there are 1.3 million runouts (fewer with every further player).
+     * @param pocketCards Array holding the pocket cards of the players at the table (all cards known).
+     * @param communityCards Array of community cards (null for unknown cards, null if all cards are unknown).
+     * @param takenCards Array of cards that are and not in the game anymore; like flashed or folded cards.
+     * @return Array of {@link Outcome} objects with one count per runout (in the same order as passed in the pocket cards parameter).
+     */
+    static Outcome[] assessExact(final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards) {
+        return assessExact(pocketCards, communityCards, takenCards, true);
+    }
 
-        Set<Callable<Outcome[]>> outcomesCallableSet = new HashSet<Callable<Outcome[]>>();
+    /**
+     * Determines the exact outcomes of a situation in which the pocket cards of all players are known (see {@code assessExact} without counts per hand parameter).
+     * Without counts per hand, heads-up preflop situations without dead cards are looked up if a {@link PreflopEquityTable} has been set.
+     * @param pocketCards Array holding the pocket cards of the players at the table (all cards known).
+     * @param communityCards Array of community cards (null for unknown cards, null if all cards are unknown).
+     * @param takenCards Array of cards that are and not in the game anymore; like flashed or folded cards.
+     * @param handCounts True if the outcomes need the counts per {@link HandName} (e.g. for {@link Outcome#toTable()}).
+     * @return Array of {@link Outcome} objects with one count per runout (in the same order as passed in the pocket cards parameter).
+     */
+    static Outcome[] assessExact(final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final boolean handCounts) {
+        long[] knownPocketCards = getKnownPocketCards(pocketCards);
+        if (knownPocketCards == null) {
+            throw new IllegalArgumentException("All pocket cards must be known for an exact assessment.");
+        }
+        Outcome[] preflopOutcomes = handCounts ? null : lookUpPreflop(knownPocketCards, communityCards, takenCards);
+        if (preflopOutcomes != null) {
+            return preflopOutcomes;
+        }
+        return enumerate(knownPocketCards, (communityCards == null) ? CardSet.EMPTY : CardSet.of(communityCards), CardSet.of(takenCards), handCounts);
+    }
 
-        for (int threadId = 0; threadId < THREAD_COUNT; threadId++) {
-            int currentThreadIterations = iterations / THREAD_COUNT;
-            if (threadId == THREAD_COUNT - 1) {
-                currentThreadIterations += iterations % THREAD_COUNT;
+    /**
+     * Plays out all runouts with {@link EnumerationCallable}s, each of which takes an index range of the runouts.
+     * There are several ranges per thread because the canonical runouts are not spread evenly over the indices.
+     * @param pocketCards {@link CardSet} of the pocket cards of every player.
+     * @param communityCards {@link CardSet} of the known community cards.
+     * @param deadCards {@link CardSet} of cards that are not in the game anymore.
+     * @param handCounts True if the outcomes keep the counts per {@link HandName}.
+     * @return The exact outcomes of all players.
+     */
+    private static Outcome[] enumerate(long[] pocketCards, long communityCards, long deadCards, boolean handCounts) {
+        int runoutCount = EnumerationCallable.getRunoutCount(pocketCards, communityCards, deadCards);
+        int[] stabilizer = EnumerationCallable.getStabilizer(pocketCards, communityCards, deadCards);
+
+        ExecutionContext context = ExecutionContext.getDefault();
+        int threadCount = Math.max(1, Math.min(context.getParallelism(), runoutCount / MIN_ITERATIONS_PER_THREAD)),
+                rangeCount = (threadCount == 1) ? 1 : threadCount * RANGES_PER_THREAD;
+        List<EnumerationCallable> enumerationCallables = new ArrayList<>();
+        for (int rangeId = 0; rangeId < rangeCount; rangeId++) {
+            enumerationCallables.add(new EnumerationCallable(pocketCards, communityCards, deadCards,
+                    (int)((long)runoutCount * rangeId / rangeCount), (int)((long)runoutCount * (rangeId + 1) / rangeCount), stabilizer));
+        }
+
+        Outcome[] outcome = new Outcome[pocketCards.length];
+        for (int i = 0; i < outcome.length; i++) { outcome[i] = new Outcome(handCounts); }
+        try {
+            for (Outcome[] rangeOutcome : context.invokeAll(enumerationCallables)) {
+                for (int i = 0; i < outcome.length; i++) {
+                    outcome[i].merge(rangeOutcome[i]);
+                }
             }
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        }
+        for (Outcome playerOutcome : outcome) {
+            playerOutcome.setExact(true);
+        }
+        return outcome;
+    }
+
+    /**
+     * @return True if the confidence intervals of all outcomes are at most as wide as the target width.
+     */
+    private static boolean isPrecise(Outcome[] outcomes, double z, double targetWidth) {
+        for (Outcome outcome : outcomes) {
+            double[] interval = outcome.getConfidenceInterval(z);
+            if (Double.isNaN(interval[0]) || interval[1] - interval[0] > targetWidth) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates one {@link AssessmentCallable} per thread. Every callable works on its own fork of the deck and its own copies of the cards.
+     * The fork of callable n draws from the random number generator of worker n of the context (reproducible if the context has a seed).
+     * The callables can be invoked several times (see {@code setIterations}).
+     * @param threadCount Number of callables.
+     * @param mode How the callables sample the unknown cards.
+     * @return The callables (without iterations).
+     */
+    private static List<AssessmentCallable> createCallables(final ExecutionContext context, final Deck deck, final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final int threadCount, final SamplingMode mode) {
+        final int playerCount = pocketCards.length;
+        List<AssessmentCallable> outcomesCallables = new ArrayList<AssessmentCallable>();
 
+        for (int threadId = 0; threadId < threadCount; threadId++) {
             // objects for each thread
-            Deck threadDeck = deck.clone();
+            Deck threadDeck = deck.fork();
+            threadDeck.setRandom(context.createRandom(threadId));
             DeckCard[] threadCommunityCards = new DeckCard[5];
             DeckCard[] threadTakenCards = new DeckCard[takenCards.length];
-            DeckStartingHand[] threadPocketCards = new DeckStartingHand[playerCount];
+            DeckCard[][] threadPocketCards = new DeckCard[playerCount][2];
 
             try {
                 // copy community cards to threadCommunityCards
@@ -164,51 +413,87 @@ class Assessment {
 
                 // copy pocket cards to threadPocketCards (null values possible for not determined cards)
                 for (int i = 0; i < playerCount; i++) {
-                    if (pocketCards[i] == null) {
-                        threadPocketCards[i] = new DeckStartingHand(null, null);
+                    if (pocketCards[i] != null && pocketCards[i].card1 != null) {
+                        threadPocketCards[i][0] = threadDeck.getCardLike(pocketCards[i].card1);
                     }
-                    else if (pocketCards[i].card1 != null && pocketCards[i].card2 == null) {
-                        threadPocketCards[i] = new DeckStartingHand(threadDeck.getCardLike(pocketCards[i].card1), null);
-                    }
-                    else if (pocketCards[i].card1 == null && pocketCards[i].card2 != null) {
-                        threadPocketCards[i] = new DeckStartingHand(null, threadDeck.getCardLike(pocketCards[i].card2));
-                    }
-                    else {
-                        threadPocketCards[i] = new DeckStartingHand(
-                                threadDeck.getCardLike(pocketCards[i].card1),
-                                threadDeck.getCardLike(pocketCards[i].card2));
+                    if (pocketCards[i] != null && pocketCards[i].card2 != null) {
+                        threadPocketCards[i][1] = threadDeck.getCardLike(pocketCards[i].card2);
                     }
                 }
             } catch (DeckStateException e) {
                 e.printStackTrace();
             }
 
-            outcomesCallableSet.add(new AssessmentCallable(
+            outcomesCallables.add(new AssessmentCallable(
                     threadDeck, // all threads have different deck objects with the same properties
                     threadPocketCards,
                     threadCommunityCards,
                     threadTakenCards,
-                    currentThreadIterations));
+                    0,
+                    mode));
         }
+        return outcomesCallables;
+    }
 
-        try {
-            List<Future<Outcome[]>> futures = executorService.invokeAll(outcomesCallableSet);
+    /**
+     * Distributes a number of iterations evenly among callables (the last one takes the remainder).
+     */
+    private static void setIterations(List<AssessmentCallable> outcomesCallables, int iterations) {
+        int threadCount = outcomesCallables.size();
+        for (int threadId = 0; threadId < threadCount; threadId++) {
+            int currentThreadIterations = iterations / threadCount;
+            if (threadId == threadCount - 1) {
+                currentThreadIterations += iterations % threadCount;
+            }
+            outcomesCallables.get(threadId).setIterations(currentThreadIterations);
+        }
+    }
 
-            for (Future<Outcome[]> threadOutcomeFuture : futures) {
-                Outcome[] threadOutcome = threadOutcomeFuture.get();
-                for (int i = 0; i < playerCount; i++) {
+    /**
+     * Runs callables on the pool of a context and merges their outcomes.
+     * @param outcome Outcomes of all players that the results are merged into.
+     */
+    private static void invokeAll(ExecutionContext context, List<AssessmentCallable> outcomesCallables, Outcome[] outcome) {
+        try {
+            for (Outcome[] threadOutcome : context.invokeAll(outcomesCallables)) {
+                for (int i = 0; i < outcome.length; i++) {
                     outcome[i].merge(threadOutcome[i]);
                 }
             }
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
-        } finally {
-            executorService.shutdown();
         }
+    }
 
-        // performance measurements
-        //System.out.printf("%9.4f e-6 s (x%d hands)\n", (double)(System.nanoTime() - start) / 1e3 / Outcome.getCount(outcome), Outcome.getCount(outcome));
-        return outcome;
+    /**
+     * @param knownPocketCards {@link CardSet} of the pocket cards of every player (see {@code getKnownPocketCards}), null if a card is unknown.
+     * @return The outcomes of a heads-up preflop situation without dead cards from the preflop equity table (without counts per hand, so only for callers that do not request them),
+     * null if there is no table or the situation is not of that kind.
+     */
+    private static Outcome[] lookUpPreflop(long[] knownPocketCards, DeckCard[] communityCards, DeckCard[] takenCards) {
+        PreflopEquityTable table = preflopEquityTable;
+        if (table == null || knownPocketCards == null || knownPocketCards.length != 2) {
+            return null;
+        }
+        if ((communityCards != null && CardSet.of(communityCards) != CardSet.EMPTY) || CardSet.of(takenCards) != CardSet.EMPTY) {
+            return null;
+        }
+        return table.get(CardSet.toStartingHand(knownPocketCards[0]), CardSet.toStartingHand(knownPocketCards[1]));
+    }
+
+    /**
+     * @param pocketCards Array holding the pocket cards of the players at the table (null for unknown cards).
+     * @return {@link CardSet} of the pocket cards of every player, null if at least one card is unknown.
+     */
+    private static long[] getKnownPocketCards(DeckStartingHand[] pocketCards) {
+        long[] cardSets = new long[pocketCards.length];
+        for (int i = 0; i < pocketCards.length; i++) {
+            if (pocketCards[i] == null || pocketCards[i].card1 == null || pocketCards[i].card2 == null) {
+                return null;
+            }
+            cardSets[i] = pocketCards[i].getCardSet();
+        }
+        return cardSets;
     }
 
     /**
@@ -274,8 +559,8 @@ class Assessment {
 
                             StartingHandOutcome outcome1 = new StartingHandOutcome(permutation[0], assessmentOutcomes[0]),
                                     outcome2 = new StartingHandOutcome(permutation[1], assessmentOutcomes[1]);
-                            int index1 = getIndex(allPockets1, outcome1.getStartingHand()),
-                                    index2 = getIndex(allPockets2, outcome2.getStartingHand());
+                            int index1 = outcome1.getStartingHand().ID, // arrays of all starting hands are sorted by ID
+                                    index2 = outcome2.getStartingHand().ID;
 
                             // both fields must be null at this point
                             outcomes[index1][index2] = outcome1;
@@ -310,13 +595,4 @@ class Assessment {
         }
         return outcomes;
     }
-
-    private static int getIndex(StartingHand[] array, StartingHand startingHand) {
-        for (int i = 0; i < array.length; i++) {
-            if (startingHand.equals(array[i])) {
-                return i;
-            }
-        }
-        return -1;
-    }
 }
@@ -2,25 +2,23 @@ package com.timodenk.poker.boardassessment;
 
 import com.timodenk.poker.*;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
  * Class containing the actual assessment logic that {@link Assessment} uses.
  * This logic is outsourced because the assessment has to be conducted on multiple threads.
  * The worker pool that all threads access contains objects of this type (and therefore requires an implementation of {@link Callable}.
+ * The unknown cards are drawn independently or stratified (see {@link SamplingMode}).
  */
 class AssessmentCallable implements Callable<Outcome[]> {
-    // one deck to work with (all cards will be taken from this deck and the deck will be shuffled/reset subsequent to every iteration)
+    // one deck to work with (all cards will be taken from this deck and the deck will be reset to the known cards subsequent to every iteration)
     private final Deck deck;
 
-    // initial pocket cards of all players holding (holding null for randomly generated ones)
-    private final DeckStartingHand[] startingHandsInitial;
+    // initial pocket cards of all players, two per player (holding null for randomly generated ones)
+    private final DeckCard[][] pocketCardsInitial;
 
     // pocket cards of all players, modified very frequently during execution (for every iteration)
-    private DeckStartingHand[] pocketCards;
+    private final DeckCard[][] pocketCards;
 
     // taken cards (cards that are not available anymore / taken from the deck, but not at any of the players hands or on the board)
     private final DeckCard[] takenCards,
@@ -31,26 +29,76 @@ class AssessmentCallable implements Callable<Outcome[]> {
     // community cards without null values (cards to work with; will be modified during every iteration unless all cards are predetermined)
     private DeckCard[] communityCards = new DeckCard[5];
 
-    private final int iterations, // number of iterations (for this thread, not for the entire assessment)
-            playerCount; // number of players (equal to the length of the {@code pocketCards} attribute)
+    private int iterations; // number of iterations per call (for this thread, not for the entire assessment)
+
+    private final int playerCount; // number of players (equal to the length of the {@code pocketCards} attribute)
+
+    private final SamplingMode mode;
+
+    // community card positions of the stratified street (empty if all community cards are known)
+    private final int[] streetPositions;
+
+    // true for the community card positions of the stratified street (taken before the other cards)
+    private final boolean[] stratifiedPositions = new boolean[5];
 
     /**
      * Constructor for a thread's assessment task.
      * @param deck A deck of cards to work with. All other cards that are passed need to be taken from that deck.
-     * @param pocketCards Array of {@link StartingHand} objects. The array length determines the number of players who have not folded their cards yet.
+     * @param pocketCards Array holding two cards per player (null for unknown cards). The array length determines the number of players who have not folded their cards yet.
      * @param communityCards Array holding the community cards (null for unknown cards or shorter length).
      * @param takenCards Array of cards that are known to be not in the game anymore (e.g. flashed or openly folded cards). These cards will not be taken from the deck for random filling of pocket or community cards.
      * @param iterations Number of iterations for this thread, not for the entire assessment.
+     * @param mode How the unknown cards are sampled.
      */
-    AssessmentCallable(final Deck deck, final DeckStartingHand[] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final int iterations) {
+    AssessmentCallable(final Deck deck, final DeckCard[][] pocketCards, final DeckCard[] communityCards, final DeckCard[] takenCards, final int iterations, final SamplingMode mode) {
         this.deck = deck;
-        this.startingHandsInitial = pocketCards;
+        this.pocketCardsInitial = pocketCards;
+        this.pocketCards = new DeckCard[pocketCards.length][2];
         this.communityCardsInitial = communityCards;
         this.takenCards = takenCards;
 
         this.iterations = iterations;
 
         this.playerCount = pocketCards.length;
+
+        this.mode = mode;
+        this.streetPositions = (mode == SamplingMode.STRATIFIED) ? getNextStreetPositions(communityCards) : new int[0];
+        for (int position : streetPositions) {
+            this.stratifiedPositions[position] = true;
+        }
+    }
+
+    /**
+     * @param communityCards Array holding the community cards (null for unknown cards or shorter length).
+     * @return Positions of the unknown cards of the first street (flop, turn, river) that has unknown cards, an empty array if all cards are known.
+     */
+    private static int[] getNextStreetPositions(DeckCard[] communityCards) {
+        final int[] streetEnds = { 3, 4, 5 };
+        int streetStart = 0;
+        for (int streetEnd : streetEnds) {
+            int[] positions = new int[streetEnd - streetStart];
+            int count = 0;
+            for (int i = streetStart; i < streetEnd; i++) {
+                if (i >= communityCards.length || communityCards[i] == null) {
+                    positions[count++] = i;
+                }
+            }
+            if (count > 0) {
+                int[] result = new int[count];
+                System.arraycopy(positions, 0, result, 0, count);
+                return result;
+            }
+            streetStart = streetEnd;
+        }
+        return new int[0];
+    }
+
+    /**
+     * Changes the number of iterations of the following calls. A callable can be called repeatedly (e.g. batch by batch), every call starts from the known cards.
+     * @param iterations Number of iterations per call.
+     */
+    void setIterations(int iterations) {
+        this.iterations = iterations;
     }
 
     /**
@@ -60,64 +108,66 @@ class AssessmentCallable implements Callable<Outcome[]> {
      */
     @Override
     public Outcome[] call() throws DeckStateException {
-        Hand[] playerHands = new Hand[playerCount];
+        int[] playerValues = new int[playerCount]; // hand values of the current iteration
+        BoardEvaluator evaluator = new BoardEvaluator();
 
         Outcome[] outcome = new Outcome[playerCount]; // initialize outcome array
         for (int i = 0; i < playerCount; i++) {
             outcome[i] = new Outcome();
         }
 
-        for (int i = 0; i < iterations; i++) {
-            deck.shuffle(); // reset deck for every iteration
+        deck.shuffle();
+        deck.takeCards(communityCardsInitial); // community cards can not be taken by other players
+        deck.takeCards(takenCards); // known to be not in the deck anymore
+        for (DeckCard[] playerCards : pocketCardsInitial) {
+            deck.takeCards(playerCards);
+        }
+        deck.saveSnapshot(); // only the unknown cards are available from now on
 
-            deck.takeCards(communityCardsInitial); // community cards can not be taken by other players
-            deck.takeCards(takenCards); // known to be not in the deck anymore
+        // stratification: one street per iteration, spread evenly with a random offset
+        long knownCards = CardSet.ALL & ~deck.getAvailableCards();
+        int streetsCount = (streetPositions.length == 0) ? 0 : BoardIndex.getCount(streetPositions.length, knownCards);
+        double offset = deck.getRandom().nextDouble();
 
+        long[] holeCards = new long[playerCount];
+        for (int i = 0; i < iterations; i++) {
+            deck.reset(); // reset deck for every iteration
+
+            if (streetsCount > 0) {
+                takeStreet(BoardIndex.unrank((int)((i + offset) * streetsCount / iterations), streetPositions.length, knownCards));
+            }
             fillPocketCards();
             fillCommunityCards();
 
-            Card[] tmp7Cards = new Card[7];
+            long board = CardSet.of(communityCards);
+            if (CardSet.size(board) != 5) {
+                throw new DeckStateException("Same card was taken from the deck multiple times.");
+            }
             for (int j = 0; j < playerCount; j++) {
-                join(tmp7Cards, communityCards, pocketCards[j]);
-                try {
-                    playerHands[j] = Poker.getBestHand(tmp7Cards);
-                }
-                catch (NullPointerException e) {
+                holeCards[j] = CardSet.of(pocketCards[j]);
+                if (CardSet.size(board | holeCards[j]) != 7) {
                     throw new DeckStateException("Same card was taken from the deck multiple times.");
                 }
             }
 
-            List<Hand> winningHands = getWinningHands(playerHands);
-
-            for (int j = 0; j < playerCount; j++) {
-                Outcome playerOutcome = outcome[j];
-                if (winningHands.contains(playerHands[j])) {
-                    if (winningHands.size() == 1) {
-                        playerOutcome.addWin(playerHands[j]);
-                    }
-                    else {
-                        playerOutcome.addSplit(playerHands[j]);
-                    }
-                }
-                else {
-                    playerOutcome.addLoss(playerHands[j]);
-                }
-            }
+            evaluator.setBoard(board); // the board is preprocessed once for all players
+            evaluator.evaluate(holeCards, playerValues, playerCount);
+            Showdown.resolve(playerValues, outcome);
         }
         return outcome;
     }
 
     /**
-     * In order to assess a players situation at a table it is necessary to find the best hand which the player can build out of their pocket cards and the community cards.
-     * Therefore both need to be joined into one array of cards for further processing by the {@link Poker} class.
-     * @param out Array of all seven cards.
-     * @param communityCards Five community cards.
-     * @param playerCards Two pocket cards of a player.
+     * Takes the cards of the stratified street from the deck and places them at the street's community card positions.
+     * @param street {@link CardSet} of the street's cards.
+     * @throws DeckStateException Thrown if a card is not available.
      */
-    private static void join(Card[] out, Card[] communityCards, StartingHand playerCards) {
-        System.arraycopy(communityCards, 0, out, 0, 5);
-        out[5] = playerCards.card1;
-        out[6] = playerCards.card2;
+    private void takeStreet(long street) throws DeckStateException {
+        deck.takeCards(street);
+        for (int position : streetPositions) {
+            communityCards[position] = deck.getCard(CardSet.first(street));
+            street = CardSet.removeFirst(street);
+        }
     }
 
     /**
@@ -125,36 +175,24 @@ class AssessmentCallable implements Callable<Outcome[]> {
      * @throws DeckStateException Thrown if there is an error with the deck of cards (e.g. not enough cards available for the number of players).
      */
     private void fillPocketCards() throws DeckStateException {
-        pocketCards = new DeckStartingHand[playerCount];
         for (int i = 0; i < playerCount; i++) {
-            DeckCard card1, card2;
-            if (startingHandsInitial[i].card1 == null) {
-                card1 = deck.takeNextCard();
-            }
-            else {
-                card1 = startingHandsInitial[i].card1;
-                deck.takeCards(card1);
+            for (int j = 0; j < 2; j++) {
+                DeckCard card = pocketCardsInitial[i][j];
+                pocketCards[i][j] = (card == null) ? deck.takeNextCard() : card;
             }
-
-            if (startingHandsInitial[i].card2 == null) {
-                card2 = deck.takeNextCard();
-            }
-            else {
-                card2 = startingHandsInitial[i].card2;
-                deck.takeCards(card2);
-            }
-            pocketCards[i] = new DeckStartingHand(card1, card2);
         }
     }
 
     /**
      * For every iteration the unknown community cards will be determined by taking a random cards from the deck.
-     * Needs to be called even if all community cards are known, because they have to be taken from the deck.
+     * Known community cards have been taken from the deck before the first iteration, the cards of a stratified street before the other cards of the iteration.
      * @throws DeckStateException Thrown if there occurs an error when taking cards from the deck.
      */
     private void fillCommunityCards() throws DeckStateException {
-        deck.takeCards(communityCardsInitial); // community cards can not be taken by other players
         for (int i = 0; i < 5; i++) {
+            if (stratifiedPositions[i]) {
+                continue; // taken with the street
+            }
             if (!(i < communityCardsInitial.length) || communityCardsInitial[i] == null) {
                 this.communityCards[i] = deck.takeNextCard();
             }
@@ -163,27 +201,4 @@ class AssessmentCallable implements Callable<Outcome[]> {
             }
         }
     }
-
-    /**
-     * After building all player's hands the best hand(s) need to be found.
-     * In case of a split pot that can be several hands, in most of the cases it is just one hand (e.g. a Royal Flush).
-     * @param hands Hands of all players.
-     * @return One hand if one player has the best hand or in case of a split pot the player's hands that participate at the split.
-     */
-    private List<Hand> getWinningHands(final Hand[] hands) {
-        List<Hand> sortedHands = new ArrayList<Hand>();
-        Collections.addAll(sortedHands, hands);
-
-        Collections.sort(sortedHands); // best has highest index
-
-        for (int i = 0; i < sortedHands.size() - 1; i++) {
-            if (sortedHands.get(i).compareTo(sortedHands.get(i + 1)) != 0) {
-                for (int j = 0; j <= i; ) {
-                    sortedHands.remove(sortedHands.get(i));
-                    i--;
-                }
-            }
-        }
-        return sortedHands;
-    }
 }
@@ -0,0 +1,174 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.BoardEvaluator;
+import com.timodenk.poker.CardSet;
+import com.timodenk.poker.HandValue;
+
+import java.util.Arrays;
+
+/**
+ * Outcomes of every starting hand against all possible opponent hands on one board.
+ * Instead of comparing all pairs of hands, the hands are sorted by strength once. A hand wins against all weaker hands and splits with all equally strong hands,
+ * except for those that share a card with it. Those are subtracted by inclusion-exclusion: hands holding the first card, hands holding the second card, plus the hand holding both (the hand itself).
+ * The number of weaker and equally strong hands holding a card is counted per card while the sorted hands are traversed.
+ * The cost per board is therefore dominated by sorting instead of being quadratic in the number of hands.
+ */
+class BoardStrengths {
+    private static final int CARDS_COUNT = 52,
+            INDEX_BITS = 16; // the index of a hand is stored in the lower bits of its sort key
+
+    // card indices of the starting hands
+    private final int[] card1, card2;
+
+    private final long[] startingHandCards;
+
+    // values of the hands on the current board (HandValue.NONE if a starting hand shares a card with the board)
+    private final int[] values;
+
+    // counts against all opponent hands on the current board
+    private final int[] winCounts, splitCounts, lossCounts;
+
+    // sort keys (value and index) of the hands that can be played on the current board, ascending
+    private final long[] sorted;
+
+    private int playableCount;
+
+    private final BoardEvaluator evaluator = new BoardEvaluator();
+
+    // per card: number of playable hands holding the card, with a lower value than the current hand, and with the same value
+    private final int[] cardCounts = new int[CARDS_COUNT],
+            lowerCounts = new int[CARDS_COUNT],
+            equalCounts = new int[CARDS_COUNT];
+
+    /**
+     * @param startingHandCards {@link CardSet}s of two cards each (e.g. all 1326 starting hands). The opponents of a hand are the other hands of this array.
+     */
+    BoardStrengths(long[] startingHandCards) {
+        if (startingHandCards.length >= 1 << INDEX_BITS) {
+            throw new IllegalArgumentException("Too many starting hands.");
+        }
+        this.startingHandCards = startingHandCards;
+        this.card1 = new int[startingHandCards.length];
+        this.card2 = new int[startingHandCards.length];
+        for (int i = 0; i < startingHandCards.length; i++) {
+            if (CardSet.size(startingHandCards[i]) != 2) {
+                throw new IllegalArgumentException("A starting hand consists of two cards.");
+            }
+            this.card1[i] = CardSet.first(startingHandCards[i]);
+            this.card2[i] = CardSet.first(CardSet.removeFirst(startingHandCards[i]));
+        }
+        this.values = new int[startingHandCards.length];
+        this.winCounts = new int[startingHandCards.length];
+        this.splitCounts = new int[startingHandCards.length];
+        this.lossCounts = new int[startingHandCards.length];
+        this.sorted = new long[startingHandCards.length];
+    }
+
+    /**
+     * Evaluates all hands on a board and counts their wins, splits, and losses against all opponent hands.
+     * @param board {@link CardSet} of five community cards.
+     */
+    void evaluate(long board) {
+        Arrays.fill(cardCounts, 0);
+        playableCount = 0;
+        evaluator.setBoard(board);
+        for (int i = 0; i < startingHandCards.length; i++) {
+            if (CardSet.intersects(startingHandCards[i], board)) {
+                values[i] = HandValue.NONE;
+                winCounts[i] = splitCounts[i] = lossCounts[i] = 0;
+                continue;
+            }
+            values[i] = evaluator.evaluate(card1[i], card2[i]);
+            sorted[playableCount++] = ((long)values[i] << INDEX_BITS) | i;
+            cardCounts[card1[i]]++;
+            cardCounts[card2[i]]++;
+        }
+        Arrays.sort(sorted, 0, playableCount);
+        count();
+    }
+
+    /**
+     * Traverses the sorted hands in groups of equal value.
+     */
+    private void count() {
+        Arrays.fill(lowerCounts, 0);
+        int lower = 0; // number of hands with a lower value than the current group
+        for (int start = 0, end; start < playableCount; start = end) {
+            int value = getValue(sorted[start]);
+            end = start;
+            while (end < playableCount && getValue(sorted[end]) == value) {
+                int hand = getIndex(sorted[end++]);
+                equalCounts[card1[hand]]++;
+                equalCounts[card2[hand]]++;
+            }
+
+            for (int k = start; k < end; k++) {
+                int hand = getIndex(sorted[k]), c1 = card1[hand], c2 = card2[hand];
+                int opponents = playableCount - cardCounts[c1] - cardCounts[c2] + 1;
+                winCounts[hand] = lower - lowerCounts[c1] - lowerCounts[c2];
+                splitCounts[hand] = (end - start) - equalCounts[c1] - equalCounts[c2] + 1;
+                lossCounts[hand] = opponents - winCounts[hand] - splitCounts[hand];
+            }
+
+            for (int k = start; k < end; k++) {
+                int hand = getIndex(sorted[k]);
+                equalCounts[card1[hand]] = 0;
+                equalCounts[card2[hand]] = 0;
+                lowerCounts[card1[hand]]++;
+                lowerCounts[card2[hand]]++;
+            }
+            lower += end - start;
+        }
+    }
+
+    private static int getValue(long key) {
+        return (int)(key >>> INDEX_BITS);
+    }
+
+    private static int getIndex(long key) {
+        return (int)key & ((1 << INDEX_BITS) - 1);
+    }
+
+    /**
+     * @return Number of starting hands that do not share a card with the current board.
+     */
+    int getPlayableCount() {
+        return playableCount;
+    }
+
+    /**
+     * @param position Position in the order of strength [0,getPlayableCount()), 0 is the weakest hand.
+     * @return Index of the starting hand at that position.
+     */
+    int getSortedIndex(int position) {
+        return getIndex(sorted[position]);
+    }
+
+    /**
+     * @return {@link HandValue} of a starting hand on the current board, {@link HandValue#NONE} if it shares a card with the board.
+     */
+    int getValue(int hand) {
+        return values[hand];
+    }
+
+    /**
+     * @return Number of opponent hands that the starting hand beats on the current board.
+     */
+    int getWinCount(int hand) {
+        return winCounts[hand];
+    }
+
+    /**
+     * @return Number of opponent hands that the starting hand splits with on the current board.
+     */
+    int getSplitCount(int hand) {
+        return splitCounts[hand];
+    }
+
+    /**
+     * @return Number of opponent hands that beat the starting hand on the current board.
+     */
+    int getLossCount(int hand) {
+        return lossCounts[hand];
+    }
+}
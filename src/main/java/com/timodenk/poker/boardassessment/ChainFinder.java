@@ -16,7 +16,8 @@ import java.util.List;
  * This static class searches and observes such chains. Primary goal is to find the longest possible chain (the one involving most starting hands).
  */
 public class ChainFinder {
-    private static final String DATA_PATH = "/Users/Denk/Documents/Development/PokerBoardAssessment/out.dat";
+    private static final String DATA_PATH = "/Users/Denk/Documents/Development/PokerBoardAssessment/out.dat",
+            MATRIX_PATH = "/Users/Denk/Documents/Development/PokerBoardAssessment/out.pomx"; // binary copy of the data file (see OutcomeMatrixFile)
     private static List<int[]> chains = new ArrayList<>();
     private static int chainCtr = 0;
 
@@ -27,9 +28,12 @@ public class ChainFinder {
 
     private static long startTime = 0;
 
+    private static OutcomeMatrixFile outcomes = null;
+
     static {
         try {
-            m = getWinningMatrix(DATA_PATH);
+            outcomes = openMatrix();
+            m = getWinningMatrix(outcomes);
             adjacencyMatrix= getAdjacencyMatrix(m);
         } catch (IOException | ClassNotFoundException e) {
             e.printStackTrace();
@@ -37,6 +41,19 @@ public class ChainFinder {
         startTime = System.nanoTime();
     }
 
+    /**
+     * Opens the binary outcome matrix. The file is created from the serialized data file if it does not exist yet.
+     * @return The memory mapped matrix.
+     * @throws IOException Error accessing a file.
+     * @throws ClassNotFoundException Error casting the data file content.
+     */
+    private static OutcomeMatrixFile openMatrix() throws IOException, ClassNotFoundException {
+        if (!new File(MATRIX_PATH).exists()) {
+            OutcomeMatrixFile.convertFromDatFile(DATA_PATH, MATRIX_PATH);
+        }
+        return OutcomeMatrixFile.open(MATRIX_PATH);
+    }
+
     public static void main(String[] args) throws IOException, ClassNotFoundException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File("sql_create.txt")))) {
 
@@ -44,23 +61,23 @@ public class ChainFinder {
                     //"(`hand1_rank1`, `hand1_suit1`, `hand1_rank2`, `hand1_suit2`, `hand2_rank1`, `hand2_suit1`, `hand2_rank2`, `hand2_suit2`, `win`, `split`, `loss`)\n" +
                     //"values\n");
 
-            Outcome[][] outcome = Outcome.loadFromFile(DATA_PATH);
             long max = 0;
-            for (int i = 0; i < outcome.length; i++) {
+            for (int i = 0; i < outcomes.getSize(); i++) {
+                Outcome[] outcome = outcomes.getRow(i);
                 for (int j = 0; j < outcome.length; j++) {
                     String line = "(" +
                             startingHands[i].card1.toCommaAsciiString().toLowerCase() + "," +
                             startingHands[i].card2.toCommaAsciiString().toLowerCase() + "," +
                             startingHands[j].card1.toCommaAsciiString().toLowerCase() + "," +
                             startingHands[j].card2.toCommaAsciiString().toLowerCase() + "," +
-                            outcome[i][j].getWinCount() + "," +
-                            outcome[i][j].getSplitCount() + "," +
-                            outcome[i][j].getLossCount() + ")" + System.lineSeparator();
+                            outcome[j].getWinCount() + "," +
+                            outcome[j].getSplitCount() + "," +
+                            outcome[j].getLossCount() + ")" + System.lineSeparator();
                     writer.write(line);
                     System.out.print(line);
-                    if (false && max < outcome[i][j].getWinCount()) {
-                        max = outcome[i][j].getWinCount();
-                        System.out.println(startingHands[i] + " " + startingHands[j] + " " + outcome[i][j].getWinCount() + " loosing only " + outcome[i][j].getLossCount() + " and " + outcome[i][j].getSplitCount() + " splits");
+                    if (false && max < outcome[j].getWinCount()) {
+                        max = outcome[j].getWinCount();
+                        System.out.println(startingHands[i] + " " + startingHands[j] + " " + outcome[j].getWinCount() + " loosing only " + outcome[j].getLossCount() + " and " + outcome[j].getSplitCount() + " splits");
                     }
                 }
             }
@@ -218,43 +235,42 @@ public class ChainFinder {
     }
 
     private static void approachA() {
-        try {
-            final StartingHand[] startingHands = StartingHand.getAll();
-            final List<StartingHand>[] winsAgainst = getWinningAgainst(startingHands, DATA_PATH);
+        final StartingHand[] startingHands = StartingHand.getAll();
+        final List<StartingHand>[] winsAgainst = getWinningAgainst(startingHands, outcomes);
 
-            int ctr = 0;
+        int ctr = 0;
 
-            for (int i = 0; i < winsAgainst.length; i++) { // all hands
-                int a = i;
-                for (int j = 0; j < winsAgainst[i].size(); j++) {
-                    int b = winsAgainst[i].get(j).ID; // all hands that a beats
+        for (int i = 0; i < winsAgainst.length; i++) { // all hands
+            int a = i;
+            for (int j = 0; j < winsAgainst[i].size(); j++) {
+                int b = winsAgainst[i].get(j).ID; // all hands that a beats
 
-                    if (b > a) {
-                        continue;
-                    }
+                if (b > a) {
+                    continue;
+                }
 
-                    for (int k = 0; k < winsAgainst[b].size(); k++) {
-                        int c = winsAgainst[b].get(k).ID; // all hands that b beats
+                for (int k = 0; k < winsAgainst[b].size(); k++) {
+                    int c = winsAgainst[b].get(k).ID; // all hands that b beats
 
-                        if (c > a) {
-                            continue;
-                        }
+                    if (c > a) {
+                        continue;
+                    }
 
-                        if (winsAgainst[c].contains(startingHands[a])) { // if c beats a
-                            System.out.println(startingHands[a] + " > " + startingHands[b] + " > " + startingHands[c] + " > " + startingHands[a]);
-                            ctr++;
-                        }
+                    if (winsAgainst[c].contains(startingHands[a])) { // if c beats a
+                        System.out.println(startingHands[a] + " > " + startingHands[b] + " > " + startingHands[c] + " > " + startingHands[a]);
+                        ctr++;
                     }
                 }
             }
-            System.out.println(ctr + " chains found");
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
         }
+        System.out.println(ctr + " chains found");
     }
 
     private static void saveWinningMatrix(String path, String matrixPath) throws IOException, ClassNotFoundException {
-        double[][] m = getWinningMatrix(matrixPath);
+        double[][] m;
+        try (OutcomeMatrixFile outcomes = OutcomeMatrixFile.open(matrixPath)) {
+            m = getWinningMatrix(outcomes);
+        }
         JSONArray jsonArray = new JSONArray();
         for (int i = 0; i < m.length; i++) {
             JSONArray row = new JSONArray();
@@ -270,12 +286,11 @@ public class ChainFinder {
         fileWriter.close();
     }
 
-    private static List<StartingHand>[] getWinningAgainst(String path) throws IOException, ClassNotFoundException {
-        return getWinningAgainst(StartingHand.getAll(), path);
+    private static List<StartingHand>[] getWinningAgainst(OutcomeMatrixFile outcome) {
+        return getWinningAgainst(StartingHand.getAll(), outcome);
     }
 
-    private static List<StartingHand>[] getWinningAgainst(StartingHand[] startingHands, String path) throws IOException, ClassNotFoundException {
-        Outcome[][] outcome = Outcome.loadFromFile(path);
+    private static List<StartingHand>[] getWinningAgainst(StartingHand[] startingHands, OutcomeMatrixFile outcome) {
         List<StartingHand>[] winsAgainst = new List[startingHands.length]; // length = 1326
 
         for (int i = 0; i < startingHands.length; i++) {
@@ -283,7 +298,7 @@ public class ChainFinder {
 
             // check for all starting hands that i beats
             for (int j = 0; j < startingHands.length; j++) {
-                if (outcome[i][j].getWinCount() > outcome[j][i].getWinCount()) {
+                if (outcome.getWinCount(i, j) > outcome.getWinCount(j, i)) {
                     winsAgainst[i].add(startingHands[j]);
                 }
             }
@@ -294,27 +309,26 @@ public class ChainFinder {
 
 
     /**
-     * Reads a winning matrix out of a serialized file.
+     * Computes a winning matrix from an outcome matrix file.
      * The first index represents the hand A that plays against hand B (second index): matrix[A][B].
      * The matrix has the following values:
      *  - A number [-1,1] which represents the win probability of A over B minus B over A. If A wins more often against B then B against A, this value is positive.
      *  - NaN: The cards can not play against each other.
-     * @param path File to load the data from.
+     * @param outcome Outcome matrix to compute the data from.
      * @return The matrix.
-     * @throws IOException
-     * @throws ClassNotFoundException
      */
-    private static double[][] getWinningMatrix(String path) throws IOException, ClassNotFoundException {
-        Outcome[][] outcome = Outcome.loadFromFile(path);
-        double[][] matrix = new double[outcome.length][];
-        for (int i = 0; i < outcome.length; i++) {
-            matrix[i] = new double[outcome[i].length];
-            for (int j = 0; j < outcome[i].length; j++) {
-                if (outcome[i][j].getWinCount() + outcome[i][j].getSplitCount() + outcome[i][j].getLossCount() == 0) {
+    private static double[][] getWinningMatrix(OutcomeMatrixFile outcome) {
+        double[][] matrix = new double[outcome.getSize()][];
+        for (int i = 0; i < outcome.getSize(); i++) {
+            matrix[i] = new double[outcome.getSize()];
+            for (int j = 0; j < outcome.getSize(); j++) {
+                long count = outcome.getWinCount(i, j) + outcome.getSplitCount(i, j) + outcome.getLossCount(i, j);
+                if (count == 0) {
                     matrix[i][j] = Double.NaN;
                 }
                 else {
-                    matrix[i][j] = outcome[i][j].getWinRate() - outcome[j][i].getWinRate();
+                    long opponentCount = outcome.getWinCount(j, i) + outcome.getSplitCount(j, i) + outcome.getLossCount(j, i);
+                    matrix[i][j] = (double)outcome.getWinCount(i, j) / count - (double)outcome.getWinCount(j, i) / opponentCount;
                 }
             }
         }
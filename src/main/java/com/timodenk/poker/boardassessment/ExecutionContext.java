@@ -0,0 +1,128 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.FastRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Long-lived thread pool that all assessment engines of this package share.
+ * Creating and shutting down a pool for every assessment dominates the run time of small queries, so one pool is created lazily and reused.
+ * The pool's threads are daemon threads, they do not prevent the JVM from exiting.
+ * A context can be closed explicitly; the default context is then recreated on its next use.
+ *
+ * The workers draw random numbers from their own {@link FastRandom} generators. If a seed has been set, worker n gets stream n of the seed,
+ * so a sampling assessment yields the same outcomes for the same seed and number of workers.
+ */
+class ExecutionContext implements AutoCloseable {
+    private static ExecutionContext defaultContext = null;
+
+    private final ForkJoinPool pool;
+
+    // seed of the workers' random number generators, null for arbitrary seeds
+    private volatile Long seed = null;
+
+    /**
+     * Creates a context with one thread per available processor.
+     */
+    ExecutionContext() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism Number of threads.
+     */
+    ExecutionContext(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @return The context that is shared by all engines (created on first use).
+     */
+    static synchronized ExecutionContext getDefault() {
+        if (defaultContext == null || defaultContext.isClosed()) {
+            defaultContext = new ExecutionContext();
+        }
+        return defaultContext;
+    }
+
+    /**
+     * Replaces the shared context, e.g. to use a different number of threads. The previous context is not closed.
+     * @param context The new shared context.
+     */
+    static synchronized void setDefault(ExecutionContext context) {
+        defaultContext = context;
+    }
+
+    /**
+     * @return Number of threads of the context.
+     */
+    int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return The underlying pool (for fork/join tasks).
+     */
+    ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the seed that the random number generators of the workers are derived from.
+     * @param seed The seed, null for generators with arbitrary seeds (not reproducible).
+     */
+    void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param worker Index of the worker [0,...) among the workers of one assessment.
+     * @return A new random number generator for the worker: stream {@code worker} of the seed, an arbitrarily seeded generator if no seed has been set.
+     */
+    FastRandom createRandom(int worker) {
+        Long seed = this.seed;
+        return (seed == null) ? new FastRandom() : FastRandom.getStream(seed, worker);
+    }
+
+    /**
+     * Executes several tasks and waits for all of them.
+     * A single task is executed on the calling thread because handing it to the pool would not make it faster.
+     * @param tasks The tasks.
+     * @return The results in the order of the tasks.
+     * @throws InterruptedException Thrown if the calling thread was interrupted while waiting.
+     * @throws ExecutionException Thrown if a task has thrown an exception.
+     */
+    <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.size() == 1) {
+            try {
+                results.add(tasks.get(0).call());
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+            return results;
+        }
+
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    boolean isClosed() {
+        return pool.isShutdown();
+    }
+
+    /**
+     * Shuts the pool down. Tasks that are running are finished.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
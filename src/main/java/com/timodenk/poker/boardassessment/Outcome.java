@@ -2,6 +2,7 @@ package com.timodenk.poker.boardassessment;
 
 import com.timodenk.poker.Hand;
 import com.timodenk.poker.HandName;
+import com.timodenk.poker.HandValue;
 
 import java.io.*;
 
@@ -11,6 +12,9 @@ import java.io.*;
  * The class offers functions so get the aggregated and simply processed values of the stored outcomes.
  */
 class Outcome implements Serializable {
+    // implicit UID of the original class, so existing .dat files stay readable (fields added since then are read with their default values)
+    private static final long serialVersionUID = -4176894411754501239L;
+
     // counter for win, split, and loss
     private long win, split, loss;
 
@@ -19,6 +23,9 @@ class Outcome implements Serializable {
 
     private final boolean handCount;
 
+    // true if the counts cover every possible runout once (enumerated or looked up) instead of a sample
+    private boolean exact = false;
+
     /**
      * Default constructor for blank Outcome object.
      * All count values will be equal to 0.
@@ -49,14 +56,52 @@ class Outcome implements Serializable {
         this.loss = loss;
     }
 
+    /**
+     * Constructor to initialize the outcome object with values including the counts per hand.
+     * @param win Number of wins.
+     * @param split Number of splits.
+     * @param loss Number of losses.
+     * @param handWinCount Number of wins per {@link HandName} (indexed by ordinal).
+     * @param handSplitCount Number of splits per {@link HandName}.
+     * @param handLossCount Number of losses per {@link HandName}.
+     */
+    Outcome(long win, long split, long loss, long[] handWinCount, long[] handSplitCount, long[] handLossCount) {
+        this.win = win;
+        this.split = split;
+        this.loss = loss;
+        this.handWinCount = handWinCount;
+        this.handSplitCount = handSplitCount;
+        this.handLossCount = handLossCount;
+        this.handCount = true;
+    }
+
     /**
      * Adds a new win.
      * @param hand The hand that won.
      */
     void addWin(Hand hand) {
+        addWin(hand.value);
+    }
+
+    /**
+     * Adds a new win.
+     * @param handValue The {@link HandValue} of the hand that won.
+     */
+    void addWin(int handValue) {
         this.win++;
         if (this.handCount)
-            handWinCount[hand.name.ordinal()]++;
+            handWinCount[HandValue.getHandName(handValue).ordinal()]++;
+    }
+
+    /**
+     * Adds several wins of the same hand value.
+     * @param handValue The {@link HandValue} of the hand that won.
+     * @param count Number of wins.
+     */
+    void addWin(int handValue, long count) {
+        this.win += count;
+        if (this.handCount)
+            handWinCount[HandValue.getHandName(handValue).ordinal()] += count;
     }
 
     /**
@@ -64,9 +109,28 @@ class Outcome implements Serializable {
      * @param hand The hand that participated in the split.
      */
     void addSplit(Hand hand) {
+        addSplit(hand.value);
+    }
+
+    /**
+     * Adds a new split.
+     * @param handValue The {@link HandValue} of the hand that participated in the split.
+     */
+    void addSplit(int handValue) {
         this.split++;
         if (this.handCount)
-            handSplitCount[hand.name.ordinal()]++;
+            handSplitCount[HandValue.getHandName(handValue).ordinal()]++;
+    }
+
+    /**
+     * Adds several splits of the same hand value.
+     * @param handValue The {@link HandValue} of the hand that participated in the split.
+     * @param count Number of splits.
+     */
+    void addSplit(int handValue, long count) {
+        this.split += count;
+        if (this.handCount)
+            handSplitCount[HandValue.getHandName(handValue).ordinal()] += count;
     }
 
     /**
@@ -74,9 +138,28 @@ class Outcome implements Serializable {
      * @param hand The hand that lost.
      */
     void addLoss(Hand hand) {
+        addLoss(hand.value);
+    }
+
+    /**
+     * Adds a new loss.
+     * @param handValue The {@link HandValue} of the hand that lost.
+     */
+    void addLoss(int handValue) {
         this.loss++;
         if (this.handCount)
-            handLossCount[hand.name.ordinal()]++;
+            handLossCount[HandValue.getHandName(handValue).ordinal()]++;
+    }
+
+    /**
+     * Adds several losses of the same hand value.
+     * @param handValue The {@link HandValue} of the hand that lost.
+     * @param count Number of losses.
+     */
+    void addLoss(int handValue, long count) {
+        this.loss += count;
+        if (this.handCount)
+            handLossCount[HandValue.getHandName(handValue).ordinal()] += count;
     }
 
     /**
@@ -130,6 +213,51 @@ class Outcome implements Serializable {
         return (double)handLossCount[handName.ordinal()] / loss;
     }
 
+    /**
+     * Marks the outcome as exact, i.e. its counts are not a sample but cover every possible runout once (see {@link EnumerationCallable} and {@link PreflopEquityTable}).
+     * @param exact True for exact counts.
+     */
+    void setExact(boolean exact) {
+        this.exact = exact;
+    }
+
+    /**
+     * @return True if the counts cover every possible runout once, false if they are a sample.
+     */
+    boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Standard error of the win rate, that is the standard deviation of the win rate that a statistical assessment estimates: sqrt(p * (1 - p) / n).
+     * @return The standard error, 0 for exact outcomes, NaN if no showdowns have been added.
+     */
+    double getStandardError() {
+        if (exact && getCount() > 0) {
+            return 0;
+        }
+        double p = getWinRate();
+        return Math.sqrt(p * (1 - p) / getCount());
+    }
+
+    /**
+     * Confidence interval of the win rate (Wilson score interval).
+     * Opposed to the win rate +/- z times the standard error, the interval does not collapse to a single point for win rates of 0 or 1 and stays within [0,1].
+     * @param z Quantile of the standard normal distribution that defines the confidence level (e.g. 1.96 for 95%).
+     * @return Lower and upper bound of the interval (both the win rate for exact outcomes), NaN if no showdowns have been added.
+     */
+    double[] getConfidenceInterval(double z) {
+        if (exact && getCount() > 0) {
+            return new double[] { getWinRate(), getWinRate() };
+        }
+        double n = getCount(),
+                p = getWinRate(),
+                z2 = z * z,
+                center = (p + z2 / (2 * n)) / (1 + z2 / n),
+                halfWidth = z * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n)) / (1 + z2 / n);
+        return new double[] { center - halfWidth, center + halfWidth };
+    }
+
     /**
      * @return Number of showdowns that have been added (sum of wins, splits, and losses)
      */
@@ -149,6 +277,17 @@ class Outcome implements Serializable {
     long getSplitCount() { return split; }
     long getLossCount() { return loss; }
 
+    long getWinCount(HandName handName) { return handWinCount[handName.ordinal()]; }
+    long getSplitCount(HandName handName) { return handSplitCount[handName.ordinal()]; }
+    long getLossCount(HandName handName) { return handLossCount[handName.ordinal()]; }
+
+    /**
+     * @return True if the counts per hand are logged.
+     */
+    boolean hasHandCounts() {
+        return handCount;
+    }
+
     /**
      * Hand rate, meaning how often did a given hand occur.
      * @param handName The hand.
@@ -168,7 +307,7 @@ class Outcome implements Serializable {
         this.win += toMerge.win;
         this.split += toMerge.split;
         this.loss += toMerge.loss;
-
+        this.exact &= toMerge.exact; // the sum of a sample and other counts is a sample
 
         if (this.handCount && toMerge.handCount) {
             for (int i = 0; i < HandName.values().length; i++) {
@@ -0,0 +1,278 @@
+package com.timodenk.poker.boardassessment;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Square matrix of heads-up win, split, and loss counts (row plays against column) stored in a single int array.
+ * Opposed to an {@code Outcome[][]} grid there are no objects per cell and only the upper triangle is stored:
+ * the outcome of row j against column i is the mirrored outcome of i against j (wins and losses swapped).
+ * The counts of a pair (i,j) with i < j are stored adjacently (win, split, loss of i), the pairs are ordered row by row.
+ *
+ * Counts per {@link com.timodenk.poker.HandName} are not logged. Every count must fit into an int (a full sweep over all community cards logs 1712304 showdowns per pair).
+ */
+class OutcomeMatrix {
+    // offsets of the counts within a pair
+    private static final int WIN = 0, SPLIT = 1, LOSS = 2,
+            COUNTS_PER_PAIR = 3;
+
+    private final int size;
+
+    private final int[] counts;
+
+    /**
+     * Creates an empty matrix (all counts are 0).
+     * @param size Number of rows (equal to the number of columns), e.g. {@link com.timodenk.poker.StartingHand#ALL_COUNT}.
+     */
+    OutcomeMatrix(int size) {
+        this.size = size;
+        this.counts = new int[size * (size - 1) / 2 * COUNTS_PER_PAIR];
+    }
+
+    /**
+     * @return Number of rows (equal to the number of columns).
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * The index of pair (i,j+1) is the index of pair (i,j) plus one, so the pairs of a row can be iterated with a counter.
+     * @param i Row index.
+     * @param j Column index greater than i.
+     * @return The index of the pair (i,j) in the upper triangle.
+     */
+    int getPairIndex(int i, int j) {
+        return i * (2 * size - i - 1) / 2 + (j - i - 1);
+    }
+
+    /**
+     * Logs a showdown of the pair (i,j) with i < j.
+     * @param pairIndex Index of the pair (see {@code getPairIndex}).
+     * @param comparison Positive if i won, 0 for a split, negative if j won (see {@link com.timodenk.poker.HandValue#compare(int, int)}).
+     */
+    void add(int pairIndex, int comparison) {
+        int offset = pairIndex * COUNTS_PER_PAIR;
+        if (comparison > 0) {
+            counts[offset + WIN]++;
+        }
+        else if (comparison == 0) {
+            counts[offset + SPLIT]++;
+        }
+        else {
+            counts[offset + LOSS]++;
+        }
+    }
+
+    /**
+     * Logs a showdown of the pair (i,j) with i < j multiple times (e.g. for a board that stands for several isomorphic boards).
+     * @param pairIndex Index of the pair (see {@code getPairIndex}).
+     * @param comparison Positive if i won, 0 for a split, negative if j won.
+     * @param weight Number of showdowns to log.
+     */
+    void addWeighted(int pairIndex, int comparison, int weight) {
+        int offset = pairIndex * COUNTS_PER_PAIR;
+        if (comparison > 0) {
+            counts[offset + WIN] += weight;
+        }
+        else if (comparison == 0) {
+            counts[offset + SPLIT] += weight;
+        }
+        else {
+            counts[offset + LOSS] += weight;
+        }
+    }
+
+    /**
+     * Logs a showdown.
+     * @param i Row index.
+     * @param j Column index (different from i).
+     * @param comparison Positive if i won against j, 0 for a split, negative if j won.
+     */
+    void add(int i, int j, int comparison) {
+        if (i < j) {
+            add(getPairIndex(i, j), comparison);
+        }
+        else {
+            add(getPairIndex(j, i), -comparison);
+        }
+    }
+
+    /**
+     * Overwrites the counts of a cell (the mirrored cell changes accordingly).
+     * @param i Row index.
+     * @param j Column index (different from i).
+     */
+    void set(int i, int j, int win, int split, int loss) {
+        int offset;
+        if (i < j) {
+            offset = getPairIndex(i, j) * COUNTS_PER_PAIR;
+        }
+        else {
+            offset = getPairIndex(j, i) * COUNTS_PER_PAIR;
+            int swap = win; win = loss; loss = swap; // mirrored cell
+        }
+        counts[offset + WIN] = win;
+        counts[offset + SPLIT] = split;
+        counts[offset + LOSS] = loss;
+    }
+
+    long getWinCount(int i, int j) {
+        return getCount(i, j, WIN, LOSS);
+    }
+
+    long getSplitCount(int i, int j) {
+        return getCount(i, j, SPLIT, SPLIT);
+    }
+
+    long getLossCount(int i, int j) {
+        return getCount(i, j, LOSS, WIN);
+    }
+
+    /**
+     * @param i Row index.
+     * @param j Column index.
+     * @param offset Offset of the count if i is less than j.
+     * @param mirroredOffset Offset of the count if i is greater than j.
+     * @return The count of the cell, 0 for the main diagonal.
+     */
+    private long getCount(int i, int j, int offset, int mirroredOffset) {
+        if (i < j) {
+            return counts[getPairIndex(i, j) * COUNTS_PER_PAIR + offset];
+        }
+        if (i > j) {
+            return counts[getPairIndex(j, i) * COUNTS_PER_PAIR + mirroredOffset];
+        }
+        return 0;
+    }
+
+    /**
+     * @param i Row index.
+     * @param j Column index.
+     * @return A new {@link Outcome} object holding the counts of the cell (i,j). Later changes of the matrix are not reflected.
+     */
+    Outcome get(int i, int j) {
+        return new Outcome(getWinCount(i, j), getSplitCount(i, j), getLossCount(i, j));
+    }
+
+    /**
+     * Adds all counts of another matrix to this matrix.
+     * @param toMerge Matrix of the same size.
+     * @return This object (for chained merging with multiple other objects).
+     */
+    OutcomeMatrix merge(OutcomeMatrix toMerge) {
+        if (toMerge.size != this.size) {
+            throw new IllegalArgumentException("Matrices must have the same size.");
+        }
+        int[] source = toMerge.counts;
+        for (int k = 0; k < counts.length; k++) {
+            counts[k] += source[k];
+        }
+        return this; // for chaining
+    }
+
+    /**
+     * Sums up several matrices in parallel. Every task of the pool adds up a range of the counts of all matrices.
+     * @param matrices Matrices of the same size (e.g. the accumulators of several threads).
+     * @param size Number of rows of the matrices (the size of the result if there are no matrices).
+     * @param pool Pool that executes the merge.
+     * @return A new matrix holding the sums.
+     */
+    static OutcomeMatrix merge(List<OutcomeMatrix> matrices, int size, ForkJoinPool pool) {
+        OutcomeMatrix result = new OutcomeMatrix(size);
+        for (OutcomeMatrix matrix : matrices) {
+            if (matrix.size != size) {
+                throw new IllegalArgumentException("Matrices must have the same size.");
+            }
+        }
+        pool.invoke(new MergeTask(result, matrices, 0, result.counts.length));
+        return result;
+    }
+
+    /**
+     * Task that adds a range of the counts of several matrices to a target matrix.
+     */
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private static final int LEAF_COUNTS = 1 << 16;
+
+        private final OutcomeMatrix target;
+        private final List<OutcomeMatrix> sources;
+        private final int from, to;
+
+        MergeTask(OutcomeMatrix target, List<OutcomeMatrix> sources, int from, int to) {
+            this.target = target;
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_COUNTS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MergeTask(target, sources, from, middle), new MergeTask(target, sources, middle, to));
+                return;
+            }
+            int[] counts = target.counts;
+            for (OutcomeMatrix source : sources) {
+                int[] sourceCounts = source.counts;
+                for (int k = from; k < to; k++) {
+                    counts[k] += sourceCounts[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Averages the matrix over a group of row/column permutations: cell (i,j) of the result is the mean of the cells (p[i],p[j]) over all permutations p.
+     * This turns the counts of the suit-canonical boards weighted by their multiplicity into the counts of all boards (see {@link StartingHandAnalysis}).
+     * @param permutations Index permutations that form a group (e.g. the starting hand IDs under all 24 suit permutations).
+     * @return A new matrix holding the averages.
+     * @throws IllegalStateException Thrown if a mean is not an integer, i.e. the matrix was not accumulated over complete orbits of the group.
+     */
+    OutcomeMatrix symmetrize(int[][] permutations) {
+        OutcomeMatrix result = new OutcomeMatrix(size);
+        for (int i = 0, pairIndex = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++, pairIndex++) {
+                long win = 0, split = 0, loss = 0;
+                for (int[] permutation : permutations) {
+                    int pi = permutation[i], pj = permutation[j],
+                            offset = ((pi < pj) ? getPairIndex(pi, pj) : getPairIndex(pj, pi)) * COUNTS_PER_PAIR;
+                    split += counts[offset + SPLIT];
+                    if (pi < pj) {
+                        win += counts[offset + WIN];
+                        loss += counts[offset + LOSS];
+                    }
+                    else { // mirrored cell
+                        win += counts[offset + LOSS];
+                        loss += counts[offset + WIN];
+                    }
+                }
+                if (win % permutations.length != 0 || split % permutations.length != 0 || loss % permutations.length != 0) {
+                    throw new IllegalStateException("The matrix is not symmetric with respect to the permutations.");
+                }
+                int offset = pairIndex * COUNTS_PER_PAIR;
+                result.counts[offset + WIN] = (int)(win / permutations.length);
+                result.counts[offset + SPLIT] = (int)(split / permutations.length);
+                result.counts[offset + LOSS] = (int)(loss / permutations.length);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return A grid of {@link Outcome} objects holding the counts of all cells (for consumers that need one).
+     */
+    Outcome[][] toArray() {
+        Outcome[][] outcomes = new Outcome[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                outcomes[i][j] = get(i, j);
+            }
+        }
+        return outcomes;
+    }
+}
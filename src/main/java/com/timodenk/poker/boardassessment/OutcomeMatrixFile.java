@@ -0,0 +1,365 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.HandName;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary file of a square matrix of {@link Outcome}s (e.g. the heads-up results of all starting hands, row plays against column).
+ * Opposed to the serialized .dat files of {@link Outcome#saveToFile(String, Outcome[][])} the file consists of fixed-width records of primitive values.
+ * Files are written in a streaming fashion (row by row) and read via memory mapping, so a single cell or row can be queried without loading the whole matrix.
+ *
+ * Layout (big-endian):
+ *  - Header: magic number, format version, matrix size n, flags (all int).
+ *  - n * n records in row-major order. A record holds the win, split, and loss count (long).
+ *    If the flag {@code FLAG_HAND_COUNTS} is set, the win, split, and loss counts per {@link HandName} follow (long, ordered by hand name ordinal).
+ */
+class OutcomeMatrixFile implements AutoCloseable {
+    static final int MAGIC = 0x504F4D58, // "POMX"
+            VERSION = 1,
+            FLAG_HAND_COUNTS = 1;
+
+    private static final int HEADER_SIZE = 16,
+            HAND_NAMES_COUNT = HandName.values().length;
+
+    private final RandomAccessFile file;
+
+    private final MappedByteBuffer buffer;
+
+    private final int size, recordSize;
+
+    private final boolean handCounts;
+
+    private OutcomeMatrixFile(RandomAccessFile file, MappedByteBuffer buffer, int size, boolean handCounts) {
+        this.file = file;
+        this.buffer = buffer;
+        this.size = size;
+        this.handCounts = handCounts;
+        this.recordSize = getRecordSize(handCounts);
+    }
+
+    /**
+     * Opens a file for reading.
+     * @param path The file path.
+     * @return The memory mapped file.
+     * @throws IOException Thrown if the file can not be accessed or has an unknown format.
+     */
+    static OutcomeMatrixFile open(String path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not an outcome matrix file.");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported outcome matrix file version " + buffer.getInt(4) + ".");
+            }
+            int size = buffer.getInt(8);
+            boolean handCounts = (buffer.getInt(12) & FLAG_HAND_COUNTS) != 0;
+            if (buffer.capacity() != HEADER_SIZE + (long)size * size * getRecordSize(handCounts)) {
+                throw new IOException("Outcome matrix file is truncated or corrupted.");
+            }
+            return new OutcomeMatrixFile(file, buffer, size, handCounts);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Number of rows (equal to the number of columns).
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * @return True if the records contain the counts per {@link HandName}.
+     */
+    boolean hasHandCounts() {
+        return handCounts;
+    }
+
+    long getWinCount(int row, int column) {
+        return buffer.getLong(getOffset(row, column));
+    }
+
+    long getSplitCount(int row, int column) {
+        return buffer.getLong(getOffset(row, column) + 8);
+    }
+
+    long getLossCount(int row, int column) {
+        return buffer.getLong(getOffset(row, column) + 16);
+    }
+
+    /**
+     * Reads a single cell.
+     * @param row Row index (e.g. the ID of the starting hand whose outcome is stored).
+     * @param column Column index (e.g. the ID of the opponent's starting hand).
+     * @return The outcome of the cell (with counts per hand if the file contains them).
+     */
+    Outcome get(int row, int column) {
+        int offset = getOffset(row, column);
+        long win = buffer.getLong(offset),
+                split = buffer.getLong(offset + 8),
+                loss = buffer.getLong(offset + 16);
+        if (!handCounts) {
+            return new Outcome(win, split, loss);
+        }
+
+        long[] handWinCount = new long[HAND_NAMES_COUNT],
+                handSplitCount = new long[HAND_NAMES_COUNT],
+                handLossCount = new long[HAND_NAMES_COUNT];
+        offset += 24;
+        for (int i = 0; i < HAND_NAMES_COUNT; i++, offset += 24) {
+            handWinCount[i] = buffer.getLong(offset);
+            handSplitCount[i] = buffer.getLong(offset + 8);
+            handLossCount[i] = buffer.getLong(offset + 16);
+        }
+        return new Outcome(win, split, loss, handWinCount, handSplitCount, handLossCount);
+    }
+
+    /**
+     * @param row Row index.
+     * @return The outcomes of all cells of a row.
+     */
+    Outcome[] getRow(int row) {
+        Outcome[] outcomes = new Outcome[size];
+        for (int j = 0; j < size; j++) {
+            outcomes[j] = get(row, j);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Reads the whole matrix. Only required for consumers that need an {@code Outcome[][]}.
+     * @return All cells.
+     */
+    Outcome[][] toArray() {
+        Outcome[][] outcomes = new Outcome[size][];
+        for (int i = 0; i < size; i++) {
+            outcomes[i] = getRow(i);
+        }
+        return outcomes;
+    }
+
+    private int getOffset(int row, int column) {
+        if (row < 0 || row >= size || column < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("Cell (" + row + "," + column + ") is not part of the matrix.");
+        }
+        return HEADER_SIZE + (row * size + column) * recordSize;
+    }
+
+    private static int getRecordSize(boolean handCounts) {
+        return (handCounts ? (1 + HAND_NAMES_COUNT) : 1) * 3 * 8;
+    }
+
+    /**
+     * Closes the file. The mapping is released as soon as the buffer is garbage collected.
+     * @throws IOException Error closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Writes a matrix to a file.
+     * @param path The file path.
+     * @param outcomes Square matrix of outcomes. Cells that are {@code null} (e.g. impossible combinations) are written with all counts being 0.
+     * @param handCounts True if the counts per {@link HandName} should be stored (all non-null outcomes need to have them).
+     * @throws IOException Error accessing the file.
+     */
+    static void save(String path, Outcome[][] outcomes, boolean handCounts) throws IOException {
+        try (Writer writer = new Writer(path, outcomes.length, handCounts)) {
+            for (Outcome[] row : outcomes) {
+                for (Outcome outcome : row) {
+                    writer.write(outcome);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a matrix of win, split, and loss counts to a file (without counts per hand).
+     * @param path The file path.
+     * @param outcomes The matrix.
+     * @throws IOException Error accessing the file.
+     */
+    static void save(String path, OutcomeMatrix outcomes) throws IOException {
+        try (Writer writer = new Writer(path, outcomes.getSize(), false)) {
+            for (int i = 0; i < outcomes.getSize(); i++) {
+                for (int j = 0; j < outcomes.getSize(); j++) {
+                    writer.write(outcomes.getWinCount(i, j), outcomes.getSplitCount(i, j), outcomes.getLossCount(i, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a serialized .dat file (see {@link Outcome#loadFromFile(String)}) into the binary format.
+     * The counts per hand are kept if all outcomes contain them. The written file is read back and compared with the .dat file cell by cell.
+     * @param datPath Path of the .dat file.
+     * @param path Path of the binary file.
+     * @throws IOException Error accessing a file, or the written file does not match the .dat file.
+     * @throws ClassNotFoundException Error casting the .dat file content.
+     */
+    static void convertFromDatFile(String datPath, String path) throws IOException, ClassNotFoundException {
+        Outcome[][] outcomes = Outcome.loadFromFile(datPath);
+        save(path, outcomes, hasHandCounts(outcomes));
+        verify(path, outcomes);
+    }
+
+    /**
+     * @param outcomes Square matrix of outcomes, impossible cells (e.g. the diagonal of heads-up matrices) are {@code null}.
+     * @return True if there is at least one outcome and every outcome contains the counts per {@link HandName}.
+     */
+    private static boolean hasHandCounts(Outcome[][] outcomes) {
+        boolean found = false;
+        for (Outcome[] row : outcomes) {
+            for (Outcome outcome : row) {
+                if (outcome != null) {
+                    if (!outcome.hasHandCounts()) {
+                        return false;
+                    }
+                    found = true;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads a written file back and compares every cell with the matrix it has been written from.
+     * @param path The file path.
+     * @param outcomes The matrix ({@code null} cells are expected to have all counts being 0).
+     * @throws IOException Error accessing the file or a cell does not match.
+     */
+    private static void verify(String path, Outcome[][] outcomes) throws IOException {
+        try (OutcomeMatrixFile file = open(path)) {
+            if (file.getSize() != outcomes.length) {
+                throw new IOException("Outcome matrix file has size " + file.getSize() + " instead of " + outcomes.length + ".");
+            }
+            Outcome empty = new Outcome(file.hasHandCounts());
+            for (int i = 0; i < outcomes.length; i++) {
+                for (int j = 0; j < outcomes.length; j++) {
+                    Outcome expected = (outcomes[i][j] == null) ? empty : outcomes[i][j],
+                            actual = file.get(i, j);
+                    boolean equal = expected.getWinCount() == actual.getWinCount() && expected.getSplitCount() == actual.getSplitCount()
+                            && expected.getLossCount() == actual.getLossCount();
+                    if (file.hasHandCounts()) {
+                        for (HandName handName : HandName.values()) {
+                            equal &= expected.getWinCount(handName) == actual.getWinCount(handName) && expected.getSplitCount(handName) == actual.getSplitCount(handName)
+                                    && expected.getLossCount(handName) == actual.getLossCount(handName);
+                        }
+                    }
+                    if (!equal) {
+                        throw new IOException("Cell (" + i + "," + j + ") of the outcome matrix file does not match the converted matrix.");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a raw output file (tab separated values, see {@link StartingHandAnalysis#loadFromRawOutputFile(String)}) into the binary format.
+     * @param rawPath Path of the raw output file.
+     * @param path Path of the binary file.
+     * @throws IOException Error accessing a file.
+     */
+    static void convertFromRawOutputFile(String rawPath, String path) throws IOException {
+        save(path, StartingHandAnalysis.loadFromRawOutputFile(rawPath), false);
+    }
+
+    /**
+     * Streaming writer of a matrix file. The cells have to be written in row-major order.
+     */
+    static class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+
+        private final boolean handCounts;
+
+        private final long cellsCount;
+
+        private long written = 0;
+
+        /**
+         * Creates the file and writes its header.
+         * @param path The file path.
+         * @param size Number of rows (equal to the number of columns).
+         * @param handCounts True if the counts per {@link HandName} should be stored.
+         * @throws IOException Error accessing the file.
+         */
+        Writer(String path, int size, boolean handCounts) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+            this.handCounts = handCounts;
+            this.cellsCount = (long)size * size;
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(handCounts ? FLAG_HAND_COUNTS : 0);
+        }
+
+        /**
+         * Appends the next cell.
+         * @param outcome The outcome of the cell, {@code null} for a cell without showdowns.
+         * @throws IOException Error accessing the file.
+         */
+        void write(Outcome outcome) throws IOException {
+            if (written == cellsCount) {
+                throw new IllegalStateException("All cells have been written already.");
+            }
+            if (outcome == null) {
+                for (int i = 0; i < getRecordSize(handCounts) / 8; i++) {
+                    out.writeLong(0);
+                }
+            }
+            else {
+                out.writeLong(outcome.getWinCount());
+                out.writeLong(outcome.getSplitCount());
+                out.writeLong(outcome.getLossCount());
+                if (handCounts) {
+                    for (HandName handName : HandName.values()) {
+                        out.writeLong(outcome.getWinCount(handName));
+                        out.writeLong(outcome.getSplitCount(handName));
+                        out.writeLong(outcome.getLossCount(handName));
+                    }
+                }
+            }
+            written++;
+        }
+
+        /**
+         * Appends the next cell without counts per hand.
+         * @throws IOException Error accessing the file.
+         */
+        void write(long win, long split, long loss) throws IOException {
+            if (handCounts) {
+                throw new IllegalStateException("The file requires counts per hand.");
+            }
+            if (written == cellsCount) {
+                throw new IllegalStateException("All cells have been written already.");
+            }
+            out.writeLong(win);
+            out.writeLong(split);
+            out.writeLong(loss);
+            written++;
+        }
+
+        /**
+         * Finishes the file.
+         * @throws IOException Thrown if not all cells have been written or the file can not be accessed.
+         */
+        @Override
+        public void close() throws IOException {
+            out.close();
+            if (written != cellsCount) {
+                throw new IOException("Only " + written + " of " + cellsCount + " cells have been written.");
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.StartingHand;
+import com.timodenk.poker.SuitIsomorphism;
+
+import java.io.*;
+
+/**
+ * Exact heads-up preflop outcomes of all pairs of starting hands without dead cards, e.g. as computed by {@link StartingHandAnalysis}.
+ * Such a spot is fully determined by the two starting hands, so {@link Assessment} can look it up instead of playing it out.
+ *
+ * In memory the outcomes are held in an {@link OutcomeMatrix} indexed by starting hand ID, which makes a lookup a few array accesses.
+ * A file only holds one matchup per suit isomorphism class (the canonical one, see {@link SuitIsomorphism}); the other matchups of a class are derived when the file is loaded.
+ *
+ * File layout (big-endian): magic number, format version, number of records (all int),
+ * followed by the records: ID of the first and the second starting hand, win, split, and loss count of the first one (all int).
+ */
+class PreflopEquityTable {
+    static final int MAGIC = 0x50455154, // "PEQT"
+            VERSION = 1;
+
+    private final OutcomeMatrix outcomes; // row plays against column
+
+    /**
+     * @param outcomes Heads-up outcomes of all starting hands over all boards, rows and columns ordered by starting hand ID.
+     */
+    PreflopEquityTable(OutcomeMatrix outcomes) {
+        if (outcomes.getSize() != StartingHand.ALL_COUNT) {
+            throw new IllegalArgumentException("The matrix must contain all starting hands.");
+        }
+        this.outcomes = outcomes;
+    }
+
+    /**
+     * Computes the table by evaluating all boards for all pairs of starting hands (takes several minutes).
+     * @param log Output stream for progress messages.
+     * @return The table.
+     */
+    static PreflopEquityTable build(OutputStream log) {
+        return new PreflopEquityTable(StartingHandAnalysis.getOutcomes(StartingHand.getAll(), log, true));
+    }
+
+    /**
+     * Creates the table from a stored matrix of heads-up outcomes.
+     * @param file Matrix of all starting hands, rows and columns ordered by starting hand ID.
+     * @return The table.
+     */
+    static PreflopEquityTable fromOutcomeMatrixFile(OutcomeMatrixFile file) {
+        if (file.getSize() != StartingHand.ALL_COUNT) {
+            throw new IllegalArgumentException("The matrix must contain all starting hands.");
+        }
+        OutcomeMatrix outcomes = new OutcomeMatrix(StartingHand.ALL_COUNT);
+        for (int i = 0; i < StartingHand.ALL_COUNT; i++) {
+            for (int j = i + 1; j < StartingHand.ALL_COUNT; j++) {
+                outcomes.set(i, j, (int)file.getWinCount(i, j), (int)file.getSplitCount(i, j), (int)file.getLossCount(i, j));
+            }
+        }
+        return new PreflopEquityTable(outcomes);
+    }
+
+    /**
+     * Looks up a heads-up matchup.
+     * @param startingHand1 Pocket cards of the first player.
+     * @param startingHand2 Pocket cards of the second player.
+     * @return The exact outcomes of both players (without counts per hand), null if the starting hands share a card.
+     */
+    Outcome[] get(StartingHand startingHand1, StartingHand startingHand2) {
+        if (!StartingHand.validHandsPlayable(startingHand1, startingHand2)) {
+            return null;
+        }
+        int id1 = startingHand1.ID, id2 = startingHand2.ID;
+        Outcome[] matchup = {
+                outcomes.get(id1, id2),
+                outcomes.get(id2, id1)
+        };
+        matchup[0].setExact(true);
+        matchup[1].setExact(true);
+        return matchup;
+    }
+
+    /**
+     * Writes the canonical matchups to a file.
+     * @param path The file path.
+     * @throws IOException Error accessing the file.
+     */
+    void save(String path) throws IOException {
+        StartingHand[] startingHands = StartingHand.getAll();
+
+        // every ordered matchup whose cards are suit-canonical stands for its isomorphism class
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordsOut = new DataOutputStream(records);
+        int count = 0;
+        for (int i = 0; i < startingHands.length; i++) {
+            for (int j = 0; j < startingHands.length; j++) {
+                if (i == j || !StartingHand.validHandsPlayable(startingHands[i], startingHands[j]) ||
+                        !SuitIsomorphism.isCanonical(startingHands[i].getCardSet(), startingHands[j].getCardSet())) {
+                    continue;
+                }
+                recordsOut.writeInt(i);
+                recordsOut.writeInt(j);
+                recordsOut.writeInt((int)outcomes.getWinCount(i, j));
+                recordsOut.writeInt((int)outcomes.getSplitCount(i, j));
+                recordsOut.writeInt((int)outcomes.getLossCount(i, j));
+                count++;
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            records.writeTo(out);
+        }
+    }
+
+    /**
+     * Reads a file that has been written with {@code save} and derives the matchups that are not stored.
+     * @param path The file path.
+     * @return The table.
+     * @throws IOException Thrown if the file can not be accessed or has an unknown format.
+     */
+    static PreflopEquityTable load(String path) throws IOException {
+        int[][] permutations = StartingHandAnalysis.getSuitPermutations(StartingHand.getAll());
+        OutcomeMatrix outcomes = new OutcomeMatrix(StartingHand.ALL_COUNT);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a preflop equity file.");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported preflop equity file version " + version + ".");
+            }
+            int count = in.readInt();
+            for (int k = 0; k < count; k++) {
+                int i = in.readInt(), j = in.readInt(),
+                        win = in.readInt(), split = in.readInt(), loss = in.readInt();
+                if (i < 0 || i >= StartingHand.ALL_COUNT || j < 0 || j >= StartingHand.ALL_COUNT || i == j) {
+                    throw new IOException("Preflop equity file is corrupted.");
+                }
+                for (int[] permutation : permutations) {
+                    outcomes.set(permutation[i], permutation[j], win, split, loss);
+                }
+            }
+        }
+        return new PreflopEquityTable(outcomes);
+    }
+}
@@ -0,0 +1,86 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.CardSet;
+import com.timodenk.poker.StartingHand;
+
+/**
+ * Weighted range of starting hands that a player may hold, i.e. one non-negative weight per starting hand ID [0,1325].
+ * A weight is the relative frequency with which the player holds the hand (e.g. 1 for always, 0.5 for half the time, 0 for never).
+ * The weights do not have to sum up to 1, {@link RangeAssessment} normalizes them over the combinations that do not conflict with known cards.
+ */
+class Range {
+    private final double[] weights = new double[StartingHand.ALL_COUNT];
+
+    /**
+     * Creates an empty range (all weights are 0).
+     */
+    Range() {
+    }
+
+    /**
+     * @return A range holding all starting hands with weight 1 (a random hand).
+     */
+    static Range all() {
+        Range range = new Range();
+        for (int id = 0; id < StartingHand.ALL_COUNT; id++) {
+            range.weights[id] = 1;
+        }
+        return range;
+    }
+
+    /**
+     * @param startingHands Starting hands.
+     * @return A range holding the given starting hands with weight 1.
+     */
+    static Range of(StartingHand... startingHands) {
+        Range range = new Range();
+        for (StartingHand startingHand : startingHands) {
+            range.set(startingHand, 1);
+        }
+        return range;
+    }
+
+    /**
+     * @param startingHand A starting hand.
+     * @param weight The weight of the hand (non-negative).
+     * @return This object (for chained calls).
+     */
+    Range set(StartingHand startingHand, double weight) {
+        return set(startingHand.ID, weight);
+    }
+
+    /**
+     * @param id A starting hand ID [0,1325].
+     * @param weight The weight of the hand (non-negative).
+     * @return This object (for chained calls).
+     */
+    Range set(int id, double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("A weight must be a non-negative number.");
+        }
+        weights[id] = weight;
+        return this;
+    }
+
+    double getWeight(StartingHand startingHand) {
+        return weights[startingHand.ID];
+    }
+
+    double getWeight(int id) {
+        return weights[id];
+    }
+
+    /**
+     * @param deadCards {@link CardSet} of cards that the player can not hold (e.g. the board).
+     * @return Sum of the weights of all starting hands that do not contain a dead card.
+     */
+    double getTotalWeight(long deadCards) {
+        double total = 0;
+        for (int id = 0; id < StartingHand.ALL_COUNT; id++) {
+            if (weights[id] > 0 && !CardSet.intersects(StartingHand.get(id).getCardSet(), deadCards)) {
+                total += weights[id];
+            }
+        }
+        return total;
+    }
+}
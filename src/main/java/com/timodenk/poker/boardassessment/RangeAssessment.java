@@ -0,0 +1,366 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Static class that assesses situations in which every player holds a weighted {@link Range} of starting hands instead of known or random pocket cards.
+ * A combination of hands is played with the product of the players' weights; combinations in which hands share a card with each other, the board, or the dead cards are impossible (card removal).
+ *
+ * Heads-up, all runouts and all combinations are enumerated exactly. Per runout every hand of both ranges is evaluated once into a shared strength array and sorted.
+ * The weight of the opponent hands that a hand beats or splits with is then read from running sums over the sorted hands,
+ * corrected by inclusion-exclusion for the opponent hands that share a card with it (see {@link BoardStrengths}).
+ * The runouts are split among the threads of the {@link ExecutionContext} by colex index ranges (see {@link BoardGenerator}).
+ * On a flop this takes milliseconds; preflop all 2.6 million boards are played out, which takes minutes for wide ranges, so sampling is the better choice there.
+ *
+ * With more than two players the combinations and runouts are sampled: a hand is drawn from every range according to the weights,
+ * combinations with shared cards are rejected, and the missing community cards are dealt randomly.
+ */
+class RangeAssessment {
+    private static final int LEAF_RUNOUTS_COUNT = 256, // ranges of at most this many runouts are not split any further
+            MIN_ITERATIONS_PER_THREAD = 2000, // fewer iterations are not worth handing to another thread
+            MAX_REJECTIONS = 100000, // consecutive combinations with shared cards after which the ranges are considered incompatible
+            INDEX_BITS = 16; // the index of a hand is stored in the lower bits of its sort key
+
+    private static final String INCOMPATIBLE_RANGES_MESSAGE = "The ranges can hardly be dealt without sharing cards.";
+
+    /**
+     * Computes the exact outcomes of two ranges against each other.
+     * @param range1 Range of the first player.
+     * @param range2 Range of the second player.
+     * @param board {@link CardSet} of the known community cards (up to five).
+     * @param deadCards {@link CardSet} of cards that are not in the game anymore (e.g. folded cards).
+     * @return The outcomes of both players.
+     * @throws IllegalArgumentException Thrown if a range does not contain a hand that can be played or the ranges can not be dealt without sharing cards.
+     */
+    static RangeOutcome[] assess(Range range1, Range range2, long board, long deadCards) {
+        validate(new Range[] { range1, range2 }, board, deadCards);
+        HeadsUp headsUp = new HeadsUp(range1, range2, board, deadCards);
+        int runoutsCount = BoardIndex.getCount(headsUp.missingCount, headsUp.knownCards);
+        double[] sums = ExecutionContext.getDefault().getPool().invoke(new HeadsUpTask(headsUp, 0, runoutsCount));
+        if (sums[0] + sums[1] + sums[2] == 0) {
+            throw new IllegalArgumentException(INCOMPATIBLE_RANGES_MESSAGE);
+        }
+
+        RangeOutcome[] outcomes = { new RangeOutcome(), new RangeOutcome() };
+        double win = sums[0], split = sums[1], loss = sums[2];
+        outcomes[0].add(win, split, loss, win + split / 2);
+        outcomes[1].add(loss, split, win, loss + split / 2);
+        return outcomes;
+    }
+
+    /**
+     * Statistically assesses a situation of any number of players.
+     * @param ranges Range of every player.
+     * @param board {@link CardSet} of the known community cards (up to five).
+     * @param deadCards {@link CardSet} of cards that are not in the game anymore (e.g. folded cards).
+     * @param iterations Number of sampled combinations of hands and runouts.
+     * @return The outcome of every player (in the same order as the ranges).
+     * @throws IllegalArgumentException Thrown if a range does not contain a hand that can be played or the ranges can hardly be dealt without sharing cards.
+     */
+    static RangeOutcome[] assess(Range[] ranges, long board, long deadCards, int iterations) {
+        validate(ranges, board, deadCards);
+        long knownCards = board | deadCards;
+
+        // live hands and cumulative weights of every range
+        int[][] ids = new int[ranges.length][];
+        double[][] cumulativeWeights = new double[ranges.length][];
+        for (int p = 0; p < ranges.length; p++) {
+            int[] rangeIds = new int[StartingHand.ALL_COUNT];
+            double[] rangeWeights = new double[StartingHand.ALL_COUNT];
+            int count = 0;
+            double total = 0;
+            for (int id = 0; id < StartingHand.ALL_COUNT; id++) {
+                double weight = ranges[p].getWeight(id);
+                if (weight > 0 && !CardSet.intersects(StartingHand.get(id).getCardSet(), knownCards)) {
+                    total += weight;
+                    rangeIds[count] = id;
+                    rangeWeights[count++] = total;
+                }
+            }
+            ids[p] = Arrays.copyOf(rangeIds, count);
+            cumulativeWeights[p] = Arrays.copyOf(rangeWeights, count);
+        }
+
+        ExecutionContext context = ExecutionContext.getDefault();
+        int threadCount = Math.max(1, Math.min(context.getParallelism(), iterations / MIN_ITERATIONS_PER_THREAD));
+        List<SamplingCallable> callables = new ArrayList<>();
+        for (int threadId = 0; threadId < threadCount; threadId++) {
+            int threadIterations = iterations / threadCount + ((threadId == threadCount - 1) ? iterations % threadCount : 0);
+            callables.add(new SamplingCallable(ids, cumulativeWeights, board, knownCards, threadIterations, context.createRandom(threadId)));
+        }
+
+        RangeOutcome[] outcomes = new RangeOutcome[ranges.length];
+        for (int p = 0; p < ranges.length; p++) {
+            outcomes[p] = new RangeOutcome();
+        }
+        try {
+            for (RangeOutcome[] threadOutcomes : context.invokeAll(callables)) {
+                for (int p = 0; p < ranges.length; p++) {
+                    outcomes[p].merge(threadOutcomes[p]);
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException)e.getCause();
+            }
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        return outcomes;
+    }
+
+    /**
+     * Checks the arguments of both assessments.
+     * @throws IllegalArgumentException Thrown if the cards are invalid or a range has no weight on the hands that do not contain a known card.
+     */
+    private static void validate(Range[] ranges, long board, long deadCards) {
+        if (CardSet.size(board) > CommunityCards.CARDS_COUNT) {
+            throw new IllegalArgumentException("A board consists of up to 5 cards.");
+        }
+        if (CardSet.intersects(board, deadCards)) {
+            throw new IllegalArgumentException("A community card can not be dead.");
+        }
+        for (int p = 0; p < ranges.length; p++) {
+            if (!(ranges[p].getTotalWeight(board | deadCards) > 0)) {
+                throw new IllegalArgumentException("Range " + p + " does not contain a hand that can be played.");
+            }
+        }
+    }
+
+    /**
+     * Hands of a heads-up range assessment (read-only, shared by all tasks).
+     * Only hands that are part of at least one range and that do not contain a known card are held.
+     */
+    private static class HeadsUp {
+        private final long board, knownCards;
+        private final int missingCount; // number of community cards of a runout
+
+        private final long[] cards;
+        private final int[] card1, card2; // card indices of the hands
+        private final double[] weights1, weights2; // weight of every hand in the first and the second range
+
+        HeadsUp(Range range1, Range range2, long board, long deadCards) {
+            this.board = board;
+            this.knownCards = board | deadCards;
+            this.missingCount = CommunityCards.CARDS_COUNT - CardSet.size(board);
+
+            int count = 0;
+            long[] cards = new long[StartingHand.ALL_COUNT];
+            double[] weights1 = new double[StartingHand.ALL_COUNT], weights2 = new double[StartingHand.ALL_COUNT];
+            for (int id = 0; id < StartingHand.ALL_COUNT; id++) {
+                long hand = StartingHand.get(id).getCardSet();
+                if ((range1.getWeight(id) > 0 || range2.getWeight(id) > 0) && !CardSet.intersects(hand, knownCards)) {
+                    cards[count] = hand;
+                    weights1[count] = range1.getWeight(id);
+                    weights2[count++] = range2.getWeight(id);
+                }
+            }
+            this.cards = Arrays.copyOf(cards, count);
+            this.weights1 = Arrays.copyOf(weights1, count);
+            this.weights2 = Arrays.copyOf(weights2, count);
+            this.card1 = new int[count];
+            this.card2 = new int[count];
+            for (int h = 0; h < count; h++) {
+                this.card1[h] = CardSet.first(cards[h]);
+                this.card2[h] = CardSet.first(CardSet.removeFirst(cards[h]));
+            }
+        }
+    }
+
+    /**
+     * Task that enumerates a colex index range of runouts of a heads-up range assessment.
+     * The result holds the win, split, and loss weight of the first range.
+     */
+    private static class HeadsUpTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private static final int CARDS_COUNT = 52;
+
+        private final HeadsUp headsUp;
+        private final int start, end;
+
+        HeadsUpTask(HeadsUp headsUp, int start, int end) {
+            this.headsUp = headsUp;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (end - start > LEAF_RUNOUTS_COUNT) {
+                int middle = (start + end) >>> 1;
+                HeadsUpTask left = new HeadsUpTask(headsUp, start, middle);
+                left.fork();
+                double[] sums = new HeadsUpTask(headsUp, middle, end).compute(),
+                        leftSums = left.join();
+                for (int k = 0; k < sums.length; k++) {
+                    sums[k] += leftSums[k];
+                }
+                return sums;
+            }
+
+            final long[] cards = headsUp.cards;
+            final int[] card1 = headsUp.card1, card2 = headsUp.card2;
+            final double[] weights1 = headsUp.weights1, weights2 = headsUp.weights2;
+
+            double[] sums = new double[3];
+            BoardEvaluator evaluator = new BoardEvaluator();
+            long[] sorted = new long[cards.length]; // sort keys (value and index) of the hands that can be played on the runout
+            // per card: weight of the opponent hands holding the card, with a lower value than the current hand, and with the same value
+            double[] cardWeights = new double[CARDS_COUNT], lowerWeights = new double[CARDS_COUNT], equalWeights = new double[CARDS_COUNT];
+
+            BoardGenerator runouts = new BoardGenerator(headsUp.missingCount, headsUp.knownCards, start, end);
+            while (runouts.hasNext()) {
+                long runout = runouts.next();
+                evaluator.setBoard(headsUp.board | runout);
+
+                // shared strength array of both ranges
+                Arrays.fill(cardWeights, 0);
+                double totalWeight = 0;
+                int playableCount = 0;
+                for (int h = 0; h < cards.length; h++) {
+                    if (CardSet.intersects(cards[h], runout)) {
+                        continue;
+                    }
+                    sorted[playableCount++] = ((long)evaluator.evaluate(card1[h], card2[h]) << INDEX_BITS) | h;
+                    cardWeights[card1[h]] += weights2[h];
+                    cardWeights[card2[h]] += weights2[h];
+                    totalWeight += weights2[h];
+                }
+                Arrays.sort(sorted, 0, playableCount);
+
+                // traverse the hands in groups of equal value
+                Arrays.fill(lowerWeights, 0);
+                double lowerWeight = 0;
+                for (int groupStart = 0, groupEnd; groupStart < playableCount; groupStart = groupEnd) {
+                    long value = sorted[groupStart] >>> INDEX_BITS;
+                    double equalWeight = 0;
+                    for (groupEnd = groupStart; groupEnd < playableCount && (sorted[groupEnd] >>> INDEX_BITS) == value; groupEnd++) {
+                        int h = getIndex(sorted[groupEnd]);
+                        equalWeight += weights2[h];
+                        equalWeights[card1[h]] += weights2[h];
+                        equalWeights[card2[h]] += weights2[h];
+                    }
+
+                    for (int k = groupStart; k < groupEnd; k++) {
+                        int h = getIndex(sorted[k]), c1 = card1[h], c2 = card2[h];
+                        if (weights1[h] == 0) {
+                            continue;
+                        }
+                        // opponent hands sharing a card are removed, the hand itself is removed twice and added back once
+                        double opponentWeight = totalWeight - cardWeights[c1] - cardWeights[c2] + weights2[h],
+                                win = lowerWeight - lowerWeights[c1] - lowerWeights[c2],
+                                split = equalWeight - equalWeights[c1] - equalWeights[c2] + weights2[h];
+                        sums[0] += weights1[h] * win;
+                        sums[1] += weights1[h] * split;
+                        sums[2] += weights1[h] * (opponentWeight - win - split);
+                    }
+
+                    for (int k = groupStart; k < groupEnd; k++) {
+                        int h = getIndex(sorted[k]);
+                        equalWeights[card1[h]] = 0;
+                        equalWeights[card2[h]] = 0;
+                        lowerWeights[card1[h]] += weights2[h];
+                        lowerWeights[card2[h]] += weights2[h];
+                    }
+                    lowerWeight += equalWeight;
+                }
+            }
+            return sums;
+        }
+
+        private static int getIndex(long key) {
+            return (int)key & ((1 << INDEX_BITS) - 1);
+        }
+    }
+
+    /**
+     * Samples combinations of hands and runouts of a range assessment on one thread.
+     */
+    private static class SamplingCallable implements Callable<RangeOutcome[]> {
+        private final int[][] ids; // IDs of the playable hands of every range
+        private final double[][] cumulativeWeights; // cumulative weights of the playable hands of every range
+        private final long board, knownCards;
+        private final int iterations;
+
+        private final Deck deck = new Deck();
+        private final Random random; // shared with the deck, so one stream determines hands and runouts
+
+        SamplingCallable(int[][] ids, double[][] cumulativeWeights, long board, long knownCards, int iterations, Random random) {
+            this.ids = ids;
+            this.cumulativeWeights = cumulativeWeights;
+            this.board = board;
+            this.knownCards = knownCards;
+            this.iterations = iterations;
+            this.random = random;
+            this.deck.setRandom(random);
+        }
+
+        @Override
+        public RangeOutcome[] call() throws DeckStateException {
+            final int playerCount = ids.length,
+                    missingCount = CommunityCards.CARDS_COUNT - CardSet.size(board);
+            long[] hands = new long[playerCount];
+            int[] values = new int[playerCount];
+            BoardEvaluator evaluator = new BoardEvaluator();
+            RangeOutcome[] outcomes = new RangeOutcome[playerCount];
+            for (int p = 0; p < playerCount; p++) {
+                outcomes[p] = new RangeOutcome();
+            }
+
+            deck.shuffle();
+            deck.takeCards(knownCards);
+            deck.saveSnapshot();
+
+            for (int i = 0; i < iterations; i++) {
+                long handCards = drawHands(hands);
+                deck.reset();
+                deck.takeCards(handCards);
+                long runout = CardSet.EMPTY;
+                for (int k = 0; k < missingCount; k++) {
+                    runout |= 1L << deck.takeNextIndex();
+                }
+
+                evaluator.setBoard(board | runout);
+                evaluator.evaluate(hands, values, playerCount);
+                Showdown.resolve(values, outcomes);
+            }
+            return outcomes;
+        }
+
+        /**
+         * Draws a hand from every range according to the weights until the hands do not share a card.
+         * @param hands Array that receives the {@link CardSet} of every player's hand.
+         * @return {@link CardSet} of all hands.
+         */
+        private long drawHands(long[] hands) {
+            for (int rejections = 0; rejections < MAX_REJECTIONS; rejections++) {
+                long used = CardSet.EMPTY;
+                int p = 0;
+                for (; p < hands.length; p++) {
+                    double[] cumulative = cumulativeWeights[p];
+                    int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+                    index = (index < 0) ? -index - 1 : index + 1; // first hand whose cumulative weight exceeds the random number
+                    hands[p] = StartingHand.get(ids[p][Math.min(index, cumulative.length - 1)]).getCardSet();
+                    if (CardSet.intersects(hands[p], used)) {
+                        break;
+                    }
+                    used |= hands[p];
+                }
+                if (p == hands.length) {
+                    return used;
+                }
+            }
+            throw new IllegalArgumentException(INCOMPATIBLE_RANGES_MESSAGE);
+        }
+    }
+}
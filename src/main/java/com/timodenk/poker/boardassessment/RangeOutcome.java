@@ -0,0 +1,76 @@
+package com.timodenk.poker.boardassessment;
+
+/**
+ * Outcome of a player holding a weighted {@link Range}.
+ * Opposed to {@link Outcome} the showdowns are not counted but summed up with the weight of the combination of hands that was played,
+ * so the rates are the probabilities of winning, splitting, and losing with respect to the range weights.
+ * The equity is the share of the pot that the player receives on average (a split pot is shared among all players that split it).
+ */
+class RangeOutcome {
+    // weights of won, split, and lost showdowns, weight of the pot shares
+    private double win, split, loss, equity;
+
+    /**
+     * Logs showdowns.
+     * @param winWeight Weight of won showdowns.
+     * @param splitWeight Weight of split showdowns.
+     * @param lossWeight Weight of lost showdowns.
+     * @param equityWeight Weight of won showdowns plus the weight of split showdowns times the share of the pot.
+     */
+    void add(double winWeight, double splitWeight, double lossWeight, double equityWeight) {
+        this.win += winWeight;
+        this.split += splitWeight;
+        this.loss += lossWeight;
+        this.equity += equityWeight;
+    }
+
+    /**
+     * Merges another {@link RangeOutcome} object into this object.
+     * @param toMerge The other object to merge with.
+     * @return This object (for chained merging with multiple other objects).
+     */
+    RangeOutcome merge(RangeOutcome toMerge) {
+        add(toMerge.win, toMerge.split, toMerge.loss, toMerge.equity);
+        return this; // for chaining
+    }
+
+    /**
+     * @return Total weight of all logged showdowns.
+     */
+    double getWeight() {
+        return win + split + loss;
+    }
+
+    /**
+     * @return The probability of winning [0,1].
+     */
+    double getWinRate() {
+        return win / getWeight();
+    }
+
+    /**
+     * @return The probability of splitting [0,1].
+     */
+    double getSplitRate() {
+        return split / getWeight();
+    }
+
+    /**
+     * @return The probability of losing [0,1].
+     */
+    double getLossRate() {
+        return loss / getWeight();
+    }
+
+    /**
+     * @return The average share of the pot [0,1].
+     */
+    double getEquity() {
+        return equity / getWeight();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Win %f \tSplit %f \tEquity %f", getWinRate(), getSplitRate(), getEquity());
+    }
+}
@@ -0,0 +1,19 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.BoardIndex;
+
+/**
+ * Enumeration of the ways {@link AssessmentCallable} samples the unknown cards.
+ *
+ * Uniform: every unknown card is drawn independently.
+ *
+ * Stratified: the cards of the next unknown street (usually the flop) are not drawn independently but systematically.
+ * All possible cards of the street are indexed (see {@link BoardIndex}) and iteration i of n takes street number (i + u) * count / n for one random offset u,
+ * so every street is played equally often (+/- 1) if there are more iterations than streets, otherwise the streets are spread evenly.
+ * The remaining unknown cards are drawn randomly.
+ * This removes the part of the variance that comes from the random choice of the street; the variance within a street remains.
+ */
+enum SamplingMode {
+    UNIFORM,
+    STRATIFIED
+}
@@ -0,0 +1,80 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.HandValue;
+
+/**
+ * Static class that resolves a showdown of several players.
+ * The players' hands are given as {@link HandValue}s, the best value and the number of players holding it are found in one scan.
+ */
+class Showdown {
+    /**
+     * Determines who won, split, or lost a showdown and logs it in the players' outcomes.
+     * @param values {@link HandValue} of every player's hand.
+     * @param outcomes {@link Outcome} of every player (same order as the values).
+     */
+    static void resolve(int[] values, Outcome[] outcomes) {
+        resolve(values, outcomes, 1);
+    }
+
+    /**
+     * Determines who won, split, or lost a showdown that occurs several times (e.g. on isomorphic runouts) and logs it in the players' outcomes.
+     * @param values {@link HandValue} of every player's hand.
+     * @param outcomes {@link Outcome} of every player (same order as the values).
+     * @param count Number of times the showdown is logged.
+     */
+    static void resolve(int[] values, Outcome[] outcomes, long count) {
+        long best = findBest(values);
+        int bestValue = (int)(best >> 32), bestCount = (int)best;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != bestValue) {
+                outcomes[i].addLoss(values[i], count);
+            }
+            else if (bestCount == 1) {
+                outcomes[i].addWin(values[i], count);
+            }
+            else {
+                outcomes[i].addSplit(values[i], count);
+            }
+        }
+    }
+
+    /**
+     * Determines who won, split, or lost a showdown of players holding ranges and logs it with weight 1 in their outcomes.
+     * A split adds the share of the pot (one divided by the number of players that split it) to the equity.
+     * @param values {@link HandValue} of every player's hand.
+     * @param outcomes {@link RangeOutcome} of every player (same order as the values).
+     */
+    static void resolve(int[] values, RangeOutcome[] outcomes) {
+        long best = findBest(values);
+        int bestValue = (int)(best >> 32), bestCount = (int)best;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != bestValue) {
+                outcomes[i].add(0, 0, 1, 0);
+            }
+            else if (bestCount == 1) {
+                outcomes[i].add(1, 0, 0, 1);
+            }
+            else {
+                outcomes[i].add(0, 1, 0, 1.0 / bestCount);
+            }
+        }
+    }
+
+    /**
+     * @param values {@link HandValue} of every player's hand.
+     * @return The best value (upper 32 bits) and the number of players holding it (lower 32 bits).
+     */
+    private static long findBest(int[] values) {
+        int best = Integer.MIN_VALUE, bestCount = 0;
+        for (int value : values) {
+            if (value > best) {
+                best = value;
+                bestCount = 1;
+            }
+            else if (value == best) {
+                bestCount++;
+            }
+        }
+        return ((long)best << 32) | bestCount;
+    }
+}
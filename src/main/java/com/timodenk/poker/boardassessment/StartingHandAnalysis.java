@@ -1,86 +1,37 @@
 package com.timodenk.poker.boardassessment;
 
-import com.timodenk.poker.CommunityCards;
+import com.timodenk.poker.CardSet;
 import com.timodenk.poker.StartingHand;
+import com.timodenk.poker.SuitIsomorphism;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.concurrent.*;
 
 class StartingHandAnalysis {
-    private static final int THREAD_COUNT = 8; // number of threads
-
+    /**
+     * Computes the heads-up outcomes of all starting hands over all boards and writes them to the output.
+     * Only suit-canonical boards are evaluated (see {@code start(OutputStream, OutputStream, boolean)}).
+     * @param out Output stream for the results (tab separated values).
+     * @param log Output stream for progress messages.
+     */
     static void start(OutputStream out, OutputStream log) {
-        CommunityCards[] allCommunityCardCombinations = CommunityCards.getAllCombinations();
-        StartingHand[] startingHands = StartingHand.getAll();
-
-        Outcome[][] outcomes = new Outcome[startingHands.length][startingHands.length];
-        for (int i = 0; i < outcomes.length; i++) { // init outcome array
-            for (int j = 0; j < outcomes.length; j++) {
-                // matrix contains results
-                // row plays against column
-                outcomes[i][j] = new Outcome(false);
-            }
-        }
-
-        // start threads
-        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread t = new Thread(r);
-
-                // these threads may not prevent the JVM from exiting
-                t.setDaemon(true);
-                return t;
-            }
-        });
-
-        Set<Callable<Outcome[][]>> outcomesCallableSet = new HashSet<>();
-
-        for (int threadId = 0, communityIndex = 0; threadId < THREAD_COUNT; threadId++) {
-            int communitiesCount = allCommunityCardCombinations.length / THREAD_COUNT  +
-                    ((threadId < THREAD_COUNT - 1) ? 0 : (allCommunityCardCombinations.length % THREAD_COUNT));
-            outcomesCallableSet.add(
-                    new StartingHandAnalysisCallable(
-                            threadId,
-                            Arrays.copyOfRange(
-                                    allCommunityCardCombinations, communityIndex, communityIndex + communitiesCount),
-                            startingHands,
-                            log));
-            communityIndex += communitiesCount;
-        }
-
-        allCommunityCardCombinations = null; // not required anymore
-
-        // free up community card combinations array memory
-        Runtime r = Runtime.getRuntime();
-        r.gc();
-
-        try {
-            List<Future<Outcome[][]>> futures = executorService.invokeAll(outcomesCallableSet);
-
-            for (Future<Outcome[][]> threadOutcomeFuture : futures) {
-                Outcome[][] threadOutcome = threadOutcomeFuture.get();
+        start(out, log, true);
+    }
 
-                for (int i = 0; i < startingHands.length; i++) {
-                    for (int j = 0; j < startingHands.length; j++) {
-                        outcomes[i][j].merge(threadOutcome[i][j]);
-                    }
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            e.printStackTrace();
-        } finally {
-            executorService.shutdown();
-        }
+    /**
+     * Computes the heads-up outcomes of all starting hands over all boards and writes them to the output.
+     * @param out Output stream for the results (tab separated values).
+     * @param log Output stream for progress messages.
+     * @param canonicalBoards If true, only one board per suit isomorphism class is evaluated (about 1 of 19 boards), weighted by the size of its class.
+     *                        The counts of the permuted starting hands are derived afterwards, they are identical to those of evaluating all boards.
+     */
+    static void start(OutputStream out, OutputStream log, boolean canonicalBoards) {
+        StartingHand[] startingHands = StartingHand.getAll();
+        OutcomeMatrix outcomes = getOutcomes(startingHands, log, canonicalBoards);
 
         try {
             out.write("\t".getBytes(StandardCharsets.UTF_8));
-            for (int i = 0; i < outcomes.length; i++) {
+            for (int i = 0; i < outcomes.getSize(); i++) {
                 out.write((startingHands[i].toString() + "\t\t").getBytes(StandardCharsets.UTF_8));
             }
             out.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
@@ -88,15 +39,15 @@ class StartingHandAnalysis {
             e.printStackTrace();
         }
 
-        for (int i = 0; i < outcomes.length; i++) {
+        for (int i = 0; i < outcomes.getSize(); i++) {
             try {
                 StringBuilder outputLine = new StringBuilder();
                 outputLine.append(startingHands[i].toString());
-                for (int j = 0; j < outcomes[i].length; j++) {
-                    outputLine.append("\t" + outcomes[i][j].toValueString());
+                for (int j = 0; j < outcomes.getSize(); j++) {
+                    outputLine.append("\t" + outcomes.get(i, j).toValueString());
                 }
 
-                if (i != outcomes.length - 1)
+                if (i != outcomes.getSize() - 1)
                     outputLine.append(System.lineSeparator());
 
                 out.write(outputLine.toString().getBytes(StandardCharsets.UTF_8));
@@ -106,6 +57,85 @@ class StartingHandAnalysis {
         }
     }
 
+    /**
+     * @param startingHands All starting hands (see {@link StartingHand#getAll()}).
+     * @param log Output stream for progress messages.
+     * @param canonicalBoards If true, only one board per suit isomorphism class is evaluated (see {@code start(OutputStream, OutputStream, boolean)}).
+     * @return The heads-up outcomes of all starting hands over all boards (row plays against column).
+     */
+    static OutcomeMatrix getOutcomes(StartingHand[] startingHands, OutputStream log, boolean canonicalBoards) {
+        // boards are split dynamically among the threads of the shared context
+        OutcomeMatrix outcomes = StartingHandAnalysisTask.run(ExecutionContext.getDefault(), startingHands, canonicalBoards, log);
+        if (canonicalBoards) {
+            outcomes = outcomes.symmetrize(getSuitPermutations(startingHands));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Computes the outcomes of every starting hand against a random opponent hand over all boards and writes them to the output.
+     * Per board the hands are sorted by strength once instead of comparing all pairs (see {@link BoardStrengths}).
+     * @param out Output stream for the results (one line per starting hand with win, split, and total count).
+     * @param log Output stream for progress messages.
+     * @param canonicalBoards If true, only one board per suit isomorphism class is evaluated (see {@code start(OutputStream, OutputStream, boolean)}).
+     */
+    static void startAggregate(OutputStream out, OutputStream log, boolean canonicalBoards) {
+        StartingHand[] startingHands = StartingHand.getAll();
+        Outcome[] outcomes = getOutcomesAgainstAll(startingHands, log, canonicalBoards);
+        try {
+            for (int i = 0; i < outcomes.length; i++) {
+                out.write((startingHands[i].toString() + "\t" + outcomes[i].toValueString() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @param startingHands All starting hands (see {@link StartingHand#getAll()}).
+     * @param log Output stream for progress messages.
+     * @param canonicalBoards If true, only one board per suit isomorphism class is evaluated.
+     * @return The outcome of every starting hand against all other starting hands over all boards.
+     */
+    static Outcome[] getOutcomesAgainstAll(StartingHand[] startingHands, OutputStream log, boolean canonicalBoards) {
+        long[] counts = StartingHandAnalysisTask.runAggregate(ExecutionContext.getDefault(), startingHands, canonicalBoards, log);
+
+        Outcome[] outcomes = new Outcome[startingHands.length];
+        int[][] permutations = canonicalBoards ? getSuitPermutations(startingHands) : new int[][] { null };
+        for (int i = 0; i < startingHands.length; i++) {
+            // the counts of the canonical boards are averaged over the suit permutations of the hand
+            long win = 0, split = 0, loss = 0;
+            for (int[] permutation : permutations) {
+                int k = ((permutation == null) ? i : permutation[i]) * 3;
+                win += counts[k];
+                split += counts[k + 1];
+                loss += counts[k + 2];
+            }
+            outcomes[i] = new Outcome(win / permutations.length, split / permutations.length, loss / permutations.length);
+        }
+        return outcomes;
+    }
+
+    /**
+     * @param startingHands Starting hands.
+     * @return For every suit permutation the index (in the given array) of the permuted starting hand of every starting hand.
+     */
+    static int[][] getSuitPermutations(StartingHand[] startingHands) {
+        int[] indices = new int[StartingHand.ALL_COUNT]; // array index for every ID
+        for (int i = 0; i < startingHands.length; i++) {
+            indices[startingHands[i].ID] = i;
+        }
+
+        int[][] permutations = new int[SuitIsomorphism.PERMUTATIONS_COUNT][startingHands.length];
+        for (int p = 0; p < SuitIsomorphism.PERMUTATIONS_COUNT; p++) {
+            for (int i = 0; i < startingHands.length; i++) {
+                long permuted = SuitIsomorphism.permute(startingHands[i].getCardSet(), p);
+                permutations[p][i] = indices[CardSet.toStartingHand(permuted).ID];
+            }
+        }
+        return permutations;
+    }
+
     /**
      * Loads an array of outcome arrays from a raw output file (not to be confused with a binary .dat file).
      * @param path The file path.
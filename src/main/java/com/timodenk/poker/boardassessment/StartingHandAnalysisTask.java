@@ -0,0 +1,259 @@
+package com.timodenk.poker.boardassessment;
+
+import com.timodenk.poker.BoardEvaluator;
+import com.timodenk.poker.BoardGenerator;
+import com.timodenk.poker.CardSet;
+import com.timodenk.poker.CommunityCards;
+import com.timodenk.poker.HandValue;
+import com.timodenk.poker.StartingHand;
+import com.timodenk.poker.SuitIsomorphism;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fork/join task of the heads-up sweep over all boards (see {@link StartingHandAnalysis}).
+ * A task stands for a colex index range of boards (see {@link BoardGenerator}). Large ranges are split in halves, so idle threads steal the work of busy ones
+ * and boards of different cost (the number of playable hands varies) do not leave threads waiting for a slow static slice.
+ *
+ * Every thread of the pool accumulates into its own {@link OutcomeMatrix}, the matrices are merged in parallel when all boards have been evaluated.
+ * In the aggregate mode the outcome of every starting hand against all opponent hands is accumulated instead (see {@link BoardStrengths}).
+ */
+class StartingHandAnalysisTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    // ranges of at most this many boards are not split any further
+    private static final int LEAF_BOARDS_COUNT = 4096;
+
+    private final Sweep sweep;
+    private final int boardStart, boardEnd; // colex index range of the boards of this task
+
+    private StartingHandAnalysisTask(Sweep sweep, int boardStart, int boardEnd) {
+        this.sweep = sweep;
+        this.boardStart = boardStart;
+        this.boardEnd = boardEnd;
+    }
+
+    /**
+     * Evaluates all boards on the pool of a context.
+     * @param context The context whose pool executes the tasks.
+     * @param startingHands Starting hands (rows and columns of the result).
+     * @param canonicalBoards If true, boards that are not suit-canonical (see {@link SuitIsomorphism}) are skipped and every other board is logged as often as it has isomorphic boards.
+     *                        The result then has to be symmetrized over the suit permutations of the starting hands (see {@link OutcomeMatrix#symmetrize(int[][])}).
+     * @param log Output stream for progress messages.
+     * @return The merged outcomes of all threads.
+     */
+    static OutcomeMatrix run(ExecutionContext context, StartingHand[] startingHands, boolean canonicalBoards, OutputStream log) {
+        Sweep sweep = new Sweep(startingHands, canonicalBoards, false, log);
+        context.getPool().invoke(new StartingHandAnalysisTask(sweep, 0, CommunityCards.COMBINATIONS_COUNT));
+
+        ArrayList<OutcomeMatrix> matrices = new ArrayList<>();
+        for (Worker worker : sweep.workers.values()) {
+            matrices.add(((PairWorker)worker).outcomes);
+        }
+        return OutcomeMatrix.merge(matrices, startingHands.length, context.getPool());
+    }
+
+    /**
+     * Evaluates all boards on the pool of a context and accumulates the outcomes of every starting hand against all opponent hands.
+     * @param context The context whose pool executes the tasks.
+     * @param startingHands Starting hands (the opponents of a hand are the other given hands).
+     * @param canonicalBoards If true, only suit-canonical boards are evaluated (see {@code run}). The result then has to be symmetrized over the suit permutations of the starting hands.
+     * @param log Output stream for progress messages.
+     * @return Win, split, and loss count of every starting hand (three consecutive values per hand).
+     */
+    static long[] runAggregate(ExecutionContext context, StartingHand[] startingHands, boolean canonicalBoards, OutputStream log) {
+        Sweep sweep = new Sweep(startingHands, canonicalBoards, true, log);
+        context.getPool().invoke(new StartingHandAnalysisTask(sweep, 0, CommunityCards.COMBINATIONS_COUNT));
+
+        long[] counts = new long[startingHands.length * 3];
+        for (Worker worker : sweep.workers.values()) {
+            long[] workerCounts = ((AggregateWorker)worker).counts;
+            for (int k = 0; k < counts.length; k++) {
+                counts[k] += workerCounts[k];
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    protected void compute() {
+        if (boardEnd - boardStart > LEAF_BOARDS_COUNT) {
+            int middle = (boardStart + boardEnd) >>> 1;
+            invokeAll(new StartingHandAnalysisTask(sweep, boardStart, middle), new StartingHandAnalysisTask(sweep, middle, boardEnd));
+            return;
+        }
+
+        Worker worker = sweep.getWorker();
+        BoardGenerator boards = new BoardGenerator(boardStart, boardEnd);
+        while (boards.hasNext()) {
+            long board = boards.next();
+
+            int weight = 1; // number of boards that the current board stands for
+            if (sweep.canonicalBoards) {
+                if (!SuitIsomorphism.isCanonical(board)) {
+                    continue; // covered by the canonical board of its orbit
+                }
+                weight = SuitIsomorphism.getMultiplicity(board);
+            }
+            worker.evaluate(board, weight);
+        }
+        sweep.logProgress(boardEnd - boardStart);
+    }
+
+    /**
+     * State that all tasks of one sweep share.
+     */
+    private static class Sweep {
+        private final long[] startingHandCards; // card sets of the starting hands
+        private final boolean canonicalBoards, aggregate;
+        private final OutputStream log;
+        private final long startTime = System.nanoTime();
+
+        // accumulator of every thread that took part, registered on first use
+        // (owned by the sweep instead of thread-locals, so the pool's long-lived threads do not keep the accumulators alive after the sweep)
+        private final ConcurrentHashMap<Thread, Worker> workers = new ConcurrentHashMap<>();
+
+        private final AtomicInteger boardsDone = new AtomicInteger();
+
+        Sweep(StartingHand[] startingHands, boolean canonicalBoards, boolean aggregate, OutputStream log) {
+            this.startingHandCards = new long[startingHands.length];
+            for (int i = 0; i < startingHands.length; i++) {
+                this.startingHandCards[i] = startingHands[i].getCardSet();
+            }
+            this.canonicalBoards = canonicalBoards;
+            this.aggregate = aggregate;
+            this.log = log;
+        }
+
+        /**
+         * @return The accumulator of the current thread.
+         */
+        Worker getWorker() {
+            Thread thread = Thread.currentThread();
+            Worker current = workers.get(thread);
+            if (current == null) {
+                current = aggregate ? new AggregateWorker(startingHandCards) : new PairWorker(startingHandCards);
+                workers.put(thread, current); // only the thread itself adds its accumulator
+            }
+            return current;
+        }
+
+        /**
+         * Logs the progress roughly every 1 percent of the boards.
+         * @param boardsCount Number of boards that have just been finished.
+         */
+        void logProgress(int boardsCount) {
+            int done = boardsDone.addAndGet(boardsCount),
+                    step = CommunityCards.COMBINATIONS_COUNT / 100;
+            if (done / step == (done - boardsCount) / step) {
+                return;
+            }
+            synchronized (log) {
+                try {
+                    log.write((String.format("%7f (%4f hours remaining)",
+                            done / (float) CommunityCards.COMBINATIONS_COUNT,
+                            (double) (System.nanoTime() - startTime) / 1e9 / 3600 / done * (CommunityCards.COMBINATIONS_COUNT - done)) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Accumulator and working memory of one thread.
+     */
+    private abstract static class Worker {
+        /**
+         * Logs the showdowns of a board.
+         * @param board {@link CardSet} of five community cards.
+         * @param weight Number of times every showdown is logged.
+         */
+        abstract void evaluate(long board, int weight);
+    }
+
+    /**
+     * Worker that logs the outcome of every pair of starting hands.
+     */
+    private static class PairWorker extends Worker {
+        private final long[] startingHandCards;
+
+        private final OutcomeMatrix outcomes; // row plays against column
+
+        // values of the hands that the starting hands build with the current community cards
+        private final int[] hands;
+
+        private final BoardEvaluator evaluator = new BoardEvaluator();
+
+        PairWorker(long[] startingHandCards) {
+            this.startingHandCards = startingHandCards;
+            this.outcomes = new OutcomeMatrix(startingHandCards.length);
+            this.hands = new int[startingHandCards.length];
+        }
+
+        @Override
+        void evaluate(long board, int weight) {
+            final int count = startingHandCards.length;
+
+            // loop over all starting hands
+            // check whether they can be played on the current board
+            evaluator.setBoard(board);
+            evaluator.evaluate(startingHandCards, hands, count); // HandValue.NONE if a hand can not be played on the board
+
+            // analyze and update outcomes
+            for (int i = 0; i < count; i++) {
+                int handI = hands[i]; // value of the hand that starting hand i builds with the community cards
+                if (handI == HandValue.NONE) {
+                    continue;
+                }
+                int pairIndex = outcomes.getPairIndex(i, i + 1) - 1;
+                for (int j = i + 1; j < count; j++) {
+                    pairIndex++; // index of the pair (i,j)
+                    int handJ = hands[j]; // value of the hand that starting hand j builds with the community cards
+                    if (handJ == HandValue.NONE) {
+                        continue;
+                    }
+
+                    // check if i can play vs j on the board
+                    if (CardSet.intersects(startingHandCards[i], startingHandCards[j])) {
+                        continue;
+                    }
+
+                    // log the outcome for i vs j (j vs i is mirrored)
+                    outcomes.addWeighted(pairIndex, HandValue.compare(handI, handJ), weight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Worker that logs the outcome of every starting hand against all opponent hands.
+     */
+    private static class AggregateWorker extends Worker {
+        private final BoardStrengths strengths;
+
+        // win, split, and loss count of every starting hand
+        private final long[] counts;
+
+        AggregateWorker(long[] startingHandCards) {
+            this.strengths = new BoardStrengths(startingHandCards);
+            this.counts = new long[startingHandCards.length * 3];
+        }
+
+        @Override
+        void evaluate(long board, int weight) {
+            strengths.evaluate(board);
+            for (int i = 0, k = 0; i < counts.length; i += 3, k++) {
+                counts[i] += (long)weight * strengths.getWinCount(k);
+                counts[i + 1] += (long)weight * strengths.getSplitCount(k);
+                counts[i + 2] += (long)weight * strengths.getLossCount(k);
+            }
+        }
+    }
+}